@@ -0,0 +1,25 @@
+/**
+ * An estimate of the distance between two vertices, used by
+ * {@link GraphAlgs#shortestPathAStar(int, int, CsrGraph, AStarHeuristic)} to
+ * steer its search toward the target.
+ *
+ * For A* to find shortest paths the estimate must be a lower bound on the
+ * real distance, and it must be consistent: for every edge (u, v) of weight
+ * w, {@code estimate(u, t) <= w + estimate(v, t)}. An estimate of 0
+ * everywhere turns A* back into Dijkstra's algorithm.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public interface AStarHeuristic {
+
+    /**
+     * Estimates the distance from a vertex to the target of a search.
+     *
+     * @param vertex the vertex to estimate the distance from
+     * @param target the target of the search
+     * @return a non-negative lower bound on the distance from vertex to
+     *         target
+     */
+    int estimate(int vertex, int target);
+}
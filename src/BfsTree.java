@@ -0,0 +1,110 @@
+/**
+ * The result of a breadth first search that records the level (number of
+ * edges from the start vertex) and the parent of every vertex it reached,
+ * along with the vertices in the order they were reached.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class BfsTree {
+
+    private final int start;
+    private final int[] level;
+    private final int[] parent;
+    private final int[] order;
+    private final int reachedCount;
+
+    /**
+     * Creates a BfsTree. The arrays are used directly, not copied.
+     *
+     * @param start the vertex the search started at
+     * @param level the level of every vertex, or -1 if it was not reached
+     * @param parent the parent of every vertex, or -1 for the start vertex
+     *        and vertices that were not reached
+     * @param order the reached vertices in the order they were reached
+     * @param reachedCount the number of vertices that were reached
+     */
+    BfsTree(int start, int[] level, int[] parent, int[] order,
+            int reachedCount) {
+        this.start = start;
+        this.level = level;
+        this.parent = parent;
+        this.order = order;
+        this.reachedCount = reachedCount;
+    }
+
+    /**
+     * Gets the vertex the search started at.
+     *
+     * @return the start vertex
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Gets whether or not the search reached a vertex.
+     *
+     * @param v the vertex to check
+     * @return true if v is reachable from the start vertex, false otherwise
+     */
+    public boolean isReachable(int v) {
+        return level[v] >= 0;
+    }
+
+    /**
+     * Gets the level of a vertex, which is the number of edges on a shortest
+     * path from the start vertex to it.
+     *
+     * @param v the vertex to get the level of
+     * @return the level of v, or -1 if v was not reached
+     */
+    public int getLevel(int v) {
+        return level[v];
+    }
+
+    /**
+     * Gets the vertex that a vertex was reached from.
+     *
+     * @param v the vertex to get the parent of
+     * @return the parent of v, or -1 if v is the start vertex or was not
+     *         reached
+     */
+    public int getParent(int v) {
+        return parent[v];
+    }
+
+    /**
+     * Gets the number of vertices reached by the search, including the start
+     * vertex.
+     *
+     * @return the number of vertices reached
+     */
+    public int getReachedCount() {
+        return reachedCount;
+    }
+
+    /**
+     * Gets whether or not the search reached every vertex of the graph, which
+     * is what breadthFirstSearch returns.
+     *
+     * @return true if every vertex was reached, false otherwise
+     */
+    public boolean isConnected() {
+        return reachedCount == level.length;
+    }
+
+    /**
+     * Gets the reached vertices in the order they were reached. Vertices are
+     * always ordered by level; the order within a level depends on the
+     * search that built this tree. Only the first {@code getReachedCount()}
+     * entries are part of the order.
+     *
+     * The array is shared with this tree and must not be modified.
+     *
+     * @return the reached vertices in order
+     */
+    public int[] getOrder() {
+        return order;
+    }
+}
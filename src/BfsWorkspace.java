@@ -0,0 +1,147 @@
+import java.util.Arrays;
+
+/**
+ * Reusable scratch space for breadth first searches over a CsrGraph. Holds
+ * the visited set as a bitset of longs, the queue as an int ring buffer, and
+ * the vertices in the order they were visited.
+ *
+ * A workspace only allocates when it is reset for a graph with more vertices
+ * than it has room for, so running many searches through one workspace
+ * creates no garbage. A workspace must not be shared between threads, and
+ * the visit order is overwritten by the next search run with it.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class BfsWorkspace {
+
+    private long[] visited;
+    private int[] queue;
+    private int head;
+    private int tail;
+    private int queueSize;
+    private int[] order;
+    private int orderSize;
+
+    /**
+     * Creates a workspace with room for graphs of up to {@code capacity}
+     * vertices.
+     *
+     * @throws IllegalArgumentException if capacity is negative
+     * @param capacity the number of vertices to allocate room for
+     */
+    public BfsWorkspace(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+        visited = new long[(capacity + 63) >>> 6];
+        queue = new int[Math.max(capacity, 1)];
+        order = new int[capacity];
+    }
+
+    /**
+     * Clears the workspace for a search over a graph with
+     * {@code vertexCount} vertices, growing the arrays if they are too small.
+     *
+     * @param vertexCount the number of vertices in the graph to search
+     */
+    void reset(int vertexCount) {
+        int words = (vertexCount + 63) >>> 6;
+        if (visited.length < words) {
+            visited = new long[words];
+        } else {
+            Arrays.fill(visited, 0, words, 0L);
+        }
+        if (queue.length < vertexCount) {
+            queue = new int[vertexCount];
+        }
+        if (order.length < vertexCount) {
+            order = new int[vertexCount];
+        }
+        head = 0;
+        tail = 0;
+        queueSize = 0;
+        orderSize = 0;
+    }
+
+    /**
+     * Marks a vertex as visited.
+     *
+     * @param v the vertex to mark
+     * @return true if v was not visited before, false otherwise
+     */
+    boolean visit(int v) {
+        long bit = 1L << v;
+        long word = visited[v >>> 6];
+        if ((word & bit) != 0) {
+            return false;
+        }
+        visited[v >>> 6] = word | bit;
+        return true;
+    }
+
+    /**
+     * Adds a vertex to the back of the queue.
+     *
+     * @param v the vertex to add
+     */
+    void enqueue(int v) {
+        queue[tail] = v;
+        tail = tail + 1 == queue.length ? 0 : tail + 1;
+        queueSize++;
+    }
+
+    /**
+     * Removes the vertex at the front of the queue and appends it to the
+     * visit order.
+     *
+     * @return the vertex that was at the front of the queue
+     */
+    int dequeue() {
+        int v = queue[head];
+        head = head + 1 == queue.length ? 0 : head + 1;
+        queueSize--;
+        order[orderSize++] = v;
+        return v;
+    }
+
+    /**
+     * Gets whether or not the queue is empty.
+     *
+     * @return true if there are no vertices in the queue, false otherwise
+     */
+    boolean isQueueEmpty() {
+        return queueSize == 0;
+    }
+
+    /**
+     * Gets whether or not a vertex was visited by the last search.
+     *
+     * @param v the vertex to check
+     * @return true if v was visited, false otherwise
+     */
+    public boolean isVisited(int v) {
+        return (visited[v >>> 6] & (1L << v)) != 0;
+    }
+
+    /**
+     * Gets the number of vertices visited by the last search.
+     *
+     * @return the number of vertices visited by the last search
+     */
+    public int getVisitedCount() {
+        return orderSize;
+    }
+
+    /**
+     * Gets the vertices visited by the last search, in visited order. Only
+     * the first {@code getVisitedCount()} entries are part of the order.
+     *
+     * The array is shared with this workspace and must not be modified.
+     *
+     * @return the visit order of the last search
+     */
+    public int[] getOrder() {
+        return order;
+    }
+}
@@ -0,0 +1,265 @@
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An adjacency matrix that only records whether or not each edge exists,
+ * packed one bit per column into rows of longs. Takes V * V / 8 bytes, a
+ * 32nd of the int matrix of a GraphAdjMatrix, and lets neighbors be scanned
+ * 64 columns at a time.
+ *
+ * As in GraphAdjMatrix, the row is the starting vertex and the column is
+ * the ending vertex, and the vertices are the ints 0 to {@code size() - 1}.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class BitAdjMatrix {
+
+    private final long[][] rows;
+    private final int size;
+
+    /**
+     * The int matrix that rows are packed from on first use, or null if
+     * every row was packed when this was built.
+     */
+    private final int[][] unpacked;
+
+    /**
+     * Builds a BitAdjMatrix from a graph in adjacency matrix format. Every
+     * non-zero entry of the matrix becomes an edge.
+     *
+     * @throws IllegalArgumentException if the graph is null
+     * @param graph the graph to copy
+     */
+    public BitAdjMatrix(GraphAdjMatrix graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null.");
+        }
+        int[][] matrix = graph.getAdjMatrix();
+        size = matrix.length;
+        rows = new long[size][];
+        unpacked = null;
+        for (int i = 0; i < size; i++) {
+            rows[i] = pack(matrix[i], size);
+        }
+    }
+
+    /**
+     * Creates a BitAdjMatrix over an int adjacency matrix that packs a row
+     * the first time it is used, so a search that reaches few vertices
+     * never pays for the rows of the others. The int matrix must not change
+     * while this is used, and this is not thread safe.
+     *
+     * @param matrix the int matrix of the graph
+     */
+    private BitAdjMatrix(int[][] matrix) {
+        size = matrix.length;
+        rows = new long[size][];
+        unpacked = matrix;
+    }
+
+    /**
+     * Wraps a graph in adjacency matrix format in a BitAdjMatrix that packs
+     * each row on first use. See {@link #BitAdjMatrix(int[][])}.
+     *
+     * @param graph the graph to wrap
+     * @return the lazily packed matrix
+     */
+    static BitAdjMatrix packOnDemand(GraphAdjMatrix graph) {
+        return new BitAdjMatrix(graph.getAdjMatrix());
+    }
+
+    /**
+     * Packs a row of an int matrix, one bit per non-zero entry.
+     *
+     * @param row the row of the int matrix
+     * @param size the number of vertices
+     * @return the packed row
+     */
+    private static long[] pack(int[] row, int size) {
+        long[] packed = new long[wordsFor(size)];
+        for (int j = 0; j < row.length; j++) {
+            if (row[j] != 0) {
+                packed[j >>> 6] |= 1L << j;
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Gets the packed row of a vertex, packing it first if needed.
+     *
+     * @param u the starting vertex
+     * @return the row of u
+     */
+    private long[] row(int u) {
+        long[] row = rows[u];
+        if (row == null) {
+            row = pack(unpacked[u], size);
+            rows[u] = row;
+        }
+        return row;
+    }
+
+    /**
+     * Builds a BitAdjMatrix from a graph in adjacency list format. The
+     * vertices of the graph must be exactly the ints 0 to n - 1.
+     *
+     * @throws IllegalArgumentException if the graph is null or its vertices
+     *  are not numbered 0 to n - 1
+     * @param graph the graph to copy
+     */
+    public BitAdjMatrix(GraphAdjList graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null.");
+        }
+        Map<Integer, List<VertexDistancePair>> adjList = graph.getAdjacencyList();
+        size = adjList.size();
+        rows = new long[size][wordsFor(size)];
+        unpacked = null;
+        for (Integer v : adjList.keySet()) {
+            if (v < 0 || v >= size) {
+                throw new IllegalArgumentException("Vertices must be numbered 0 to n - 1");
+            }
+            for (VertexDistancePair pair : adjList.get(v)) {
+                rows[v][pair.getVertex() >>> 6] |= 1L << pair.getVertex();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of longs needed to hold one bit per vertex.
+     *
+     * @param vertexCount the number of vertices
+     * @return the number of longs per row
+     */
+    private static int wordsFor(int vertexCount) {
+        return (vertexCount + 63) >>> 6;
+    }
+
+    /**
+     * Gets the number of vertices in this matrix.
+     *
+     * @return the number of vertices (rows and columns) in this matrix
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of longs in every row.
+     *
+     * @return the number of longs in every row
+     */
+    public int getWordsPerRow() {
+        return wordsFor(size);
+    }
+
+    /**
+     * Gets whether or not there is an edge from u to v.
+     *
+     * @param u the starting vertex
+     * @param v the ending vertex
+     * @return true if there is an edge from u to v, false otherwise
+     */
+    public boolean hasEdge(int u, int v) {
+        return (row(u)[v >>> 6] & (1L << v)) != 0;
+    }
+
+    /**
+     * Gets the packed row of a vertex. Bit {@code v % 64} of long
+     * {@code v / 64} is set if there is an edge to v.
+     *
+     * The array is shared with this matrix and must not be modified.
+     *
+     * @param u the starting vertex
+     * @return the row of u
+     */
+    public long[] getRow(int u) {
+        return row(u);
+    }
+
+    /**
+     * Gets the number of edges out of a vertex.
+     *
+     * @param u the starting vertex
+     * @return the out degree of u
+     */
+    public int degree(int u) {
+        int degree = 0;
+        for (long word : row(u)) {
+            degree += Long.bitCount(word);
+        }
+        return degree;
+    }
+
+    /**
+     * Finds the first neighbor of u at or after column {@code from}.
+     *
+     * @param u the starting vertex
+     * @param from the first column to look at
+     * @return the neighbor found, or -1 if there is none
+     */
+    public int nextNeighbor(int u, int from) {
+        return nextNeighbor(u, from, null);
+    }
+
+    /**
+     * Finds the first neighbor of u at or after column {@code from} whose
+     * bit is not set in {@code skip}. Passing the visited set of a search as
+     * {@code skip} finds the next unvisited neighbor while skipping 64
+     * visited or missing columns at a time.
+     *
+     * @param u the starting vertex
+     * @param from the first column to look at
+     * @param skip the vertices to pass over, one bit per vertex in the same
+     *        layout as a row, or null to skip none
+     * @return the neighbor found, or -1 if there is none
+     */
+    public int nextNeighbor(int u, int from, long[] skip) {
+        long[] row = row(u);
+        int word = from >>> 6;
+        if (from < 0 || word >= row.length) {
+            return -1;
+        }
+        long bits = row[word] & (-1L << from);
+        if (skip != null) {
+            bits &= ~skip[word];
+        }
+        while (bits == 0) {
+            if (++word == row.length) {
+                return -1;
+            }
+            bits = skip == null ? row[word] : row[word] & ~skip[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * ORs the row of u into {@code dest}, adding the neighbors of u to the
+     * set of vertices in {@code dest}.
+     *
+     * @param u the starting vertex
+     * @param dest a set of vertices with {@code getWordsPerRow()} longs
+     */
+    public void orRow(int u, long[] dest) {
+        long[] row = row(u);
+        for (int i = 0; i < row.length; i++) {
+            dest[i] |= row[i];
+        }
+    }
+
+    /**
+     * ANDs the row of u into {@code dest}, keeping only the vertices in
+     * {@code dest} that are neighbors of u.
+     *
+     * @param u the starting vertex
+     * @param dest a set of vertices with {@code getWordsPerRow()} longs
+     */
+    public void andRow(int u, long[] dest) {
+        long[] row = row(u);
+        for (int i = 0; i < row.length; i++) {
+            dest[i] &= row[i];
+        }
+    }
+}
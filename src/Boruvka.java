@@ -0,0 +1,213 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Boruvka's minimum spanning forest algorithm, with both steps of every
+ * round run in parallel on a ForkJoinPool. Used by
+ * {@link GraphAlgs#mstBoruvka(CsrGraph, ForkJoinPool)}.
+ *
+ * The edges, packed as (weight, arc) longs, are cut into blocks. In the
+ * first step of a round every block drops its edges whose endpoints are
+ * already in the same component and, for every other edge, lowers the
+ * lightest edge seen so far of both endpoints' components with a
+ * compareAndSet on an AtomicLongArray. Packed edges are all different, so
+ * every component picks exactly one edge and ties break the same way in
+ * every run. In the second step, over ranges of vertices, every component
+ * unites itself with the other end of its edge in a
+ * {@link ConcurrentDisjointSet}; when two components picked the same edge,
+ * only the union that joined them adds it. Rounds go on until no block has
+ * an edge left, which at least halves the components every round.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+final class Boruvka {
+
+    /**
+     * The number of edges a block task goes through.
+     */
+    private static final int BLOCK = 1 << 12;
+
+    /**
+     * The fewest vertices a contraction task is cut down to.
+     */
+    private static final int MIN_VERTICES = 1 << 12;
+
+    /**
+     * The value of a component that has not seen an edge out of it.
+     */
+    private static final long NONE = Long.MAX_VALUE;
+
+    private final long[] edges;
+    private final int[] sources;
+    private final int[] targets;
+    private final int[] live;
+    private final int[] chosen;
+    private final AtomicLongArray lightest;
+    private final ConcurrentDisjointSet components;
+
+    /**
+     * Sets up a run over some packed edges.
+     *
+     * @param graph the graph the edges are arcs of
+     * @param edges the packed edges, reordered in place
+     * @param count the number of packed edges
+     */
+    private Boruvka(CsrGraph graph, long[] edges, int count) {
+        this.edges = edges;
+        int n = graph.getVertexCount();
+        int[] offsets = graph.getOffsets();
+        targets = graph.getTargets();
+        sources = new int[targets.length];
+        for (int u = 0; u < n; u++) {
+            Arrays.fill(sources, offsets[u], offsets[u + 1], u);
+        }
+        live = new int[(count + BLOCK - 1) / BLOCK];
+        for (int b = 0; b < live.length; b++) {
+            live[b] = Math.min(BLOCK, count - b * BLOCK);
+        }
+        chosen = new int[n];
+        lightest = new AtomicLongArray(n);
+        for (int v = 0; v < n; v++) {
+            lightest.set(v, NONE);
+        }
+        components = new ConcurrentDisjointSet(n);
+    }
+
+    /**
+     * Finds a minimum spanning forest.
+     *
+     * @param graph the graph the edges are arcs of
+     * @param edges every edge once, packed as (weight, arc index), which
+     *        get reordered
+     * @param count the number of packed edges, from the start of edges
+     * @param pool the pool to run the rounds on
+     * @return the arc indices of the forest's edges
+     */
+    static int[] run(CsrGraph graph, long[] edges, int count, ForkJoinPool pool) {
+        Boruvka run = new Boruvka(graph, edges, count);
+        int n = graph.getVertexCount();
+        int[] forest = new int[Math.max(0, n - 1)];
+        int size = 0;
+        while (true) {
+            pool.invoke(run.new LightestTask(0, run.live.length));
+            int remaining = 0;
+            for (int left : run.live) {
+                remaining += left;
+            }
+            if (remaining == 0) {
+                return Arrays.copyOf(forest, size);
+            }
+            pool.invoke(run.new ContractTask(0, n));
+            for (int v = 0; v < n; v++) {
+                if (run.chosen[v] >= 0) {
+                    forest[size++] = run.chosen[v];
+                }
+            }
+        }
+    }
+
+    /**
+     * Lowers the lightest edge out of a component if edge is lighter.
+     *
+     * @param root the root of the component
+     * @param edge the packed edge
+     */
+    private void offer(int root, long edge) {
+        long current = lightest.get(root);
+        while (edge < current && !lightest.compareAndSet(root, current, edge)) {
+            current = lightest.get(root);
+        }
+    }
+
+    /**
+     * The first step of a round over the blocks {@code [firstBlock,
+     * lastBlock)}, splitting in half until a single block is left.
+     */
+    private final class LightestTask extends RecursiveAction {
+
+        private final int firstBlock;
+        private final int lastBlock;
+
+        /**
+         * Creates a task for a range of blocks.
+         *
+         * @param firstBlock the first block of this task
+         * @param lastBlock one past the last block of this task
+         */
+        LightestTask(int firstBlock, int lastBlock) {
+            this.firstBlock = firstBlock;
+            this.lastBlock = lastBlock;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastBlock - firstBlock > 1) {
+                int mid = (firstBlock + lastBlock) >>> 1;
+                invokeAll(new LightestTask(firstBlock, mid),
+                        new LightestTask(mid, lastBlock));
+                return;
+            }
+            if (firstBlock == lastBlock) {
+                return;
+            }
+            int begin = firstBlock * BLOCK;
+            int end = begin + live[firstBlock];
+            int kept = begin;
+            for (int k = begin; k < end; k++) {
+                int arc = (int) edges[k];
+                int rootU = components.find(sources[arc]);
+                int rootV = components.find(targets[arc]);
+                if (rootU != rootV) {
+                    edges[kept++] = edges[k];
+                    offer(rootU, edges[k]);
+                    offer(rootV, edges[k]);
+                }
+            }
+            live[firstBlock] = kept - begin;
+        }
+    }
+
+    /**
+     * The second step of a round over the vertices {@code [from, to)},
+     * splitting in half until few enough vertices are left.
+     */
+    private final class ContractTask extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+
+        /**
+         * Creates a task for a range of vertices.
+         *
+         * @param from the first vertex of this task
+         * @param to one past the last vertex of this task
+         */
+        ContractTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > MIN_VERTICES) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ContractTask(from, mid), new ContractTask(mid, to));
+                return;
+            }
+            for (int v = from; v < to; v++) {
+                long edge = lightest.get(v);
+                chosen[v] = -1;
+                if (edge != NONE) {
+                    lightest.set(v, NONE);
+                    int arc = (int) edge;
+                    if (components.union(sources[arc], targets[arc])) {
+                        chosen[v] = arc;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+import java.util.NoSuchElementException;
+
+/**
+ * A monotone bucket queue (Dial's algorithm) of the ints 0 to
+ * {@code capacity - 1}, each with a non-negative int key. There is one
+ * bucket per key in a window of {@code maxWeight + 1} keys, kept as a ring,
+ * and each bucket is a doubly linked list threaded through int arrays, so
+ * insert, decrease-key and remove are O(1).
+ *
+ * The queue only works for Dijkstra's algorithm on graphs whose edge weights
+ * are between 0 and {@code maxWeight}: there, every key in the queue lies
+ * between the last polled key and that key plus {@code maxWeight}, so the
+ * window never overflows and the smallest key only moves forward. Finding
+ * it costs one step per empty bucket passed, which adds up to the largest
+ * distance over a whole search.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class BucketQueue implements IndexedPriorityQueue {
+
+    private final int[] head;
+    private final int[] next;
+    private final int[] prev;
+    private final int[] keys;
+    private final boolean[] queued;
+    private int size;
+    private int cursor;
+
+    /**
+     * Creates an empty bucket queue.
+     *
+     * @throws IllegalArgumentException if capacity or maxWeight is negative
+     * @param capacity the number of elements
+     * @param maxWeight the largest edge weight of the graph, which bounds how
+     *        far any key can be above the smallest one
+     */
+    public BucketQueue(int capacity, int maxWeight) {
+        if (capacity < 0 || maxWeight < 0) {
+            throw new IllegalArgumentException("Capacity or max weight is negative");
+        }
+        head = new int[maxWeight + 1];
+        for (int i = 0; i < head.length; i++) {
+            head[i] = -1;
+        }
+        next = new int[capacity];
+        prev = new int[capacity];
+        keys = new int[capacity];
+        queued = new boolean[capacity];
+    }
+
+    /**
+     * Gets whether or not this queue is empty, in O(1) from a count of the
+     * elements in all buckets.
+     *
+     * @return true if this queue is empty, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets whether or not an element is in some bucket of this queue, in
+     * O(1) from a flag per element.
+     *
+     * @param element the element to check
+     * @return true if the element is in this queue, false otherwise
+     */
+    @Override
+    public boolean contains(int element) {
+        return queued[element];
+    }
+
+    /**
+     * Adds an element that is not in the queue yet to the front of the
+     * bucket for its key, in O(1). If the queue is empty, the window is
+     * moved to start at the key.
+     *
+     * @throws IllegalArgumentException if the element is already in the
+     *  queue, or the key is outside the window of keys the queue can hold
+     * @param element the element to add
+     * @param key the key of the element
+     */
+    @Override
+    public void insert(int element, int key) {
+        if (queued[element]) {
+            throw new IllegalArgumentException("Element is already in the queue: " + element);
+        }
+        if (size == 0 && (key < cursor || key - cursor >= head.length)) {
+            cursor = key;
+        }
+        if (key < cursor || key - cursor >= head.length) {
+            throw new IllegalArgumentException("Key is outside the bucket window: " + key);
+        }
+        queued[element] = true;
+        keys[element] = key;
+        link(element);
+        size++;
+    }
+
+    /**
+     * Lowers the key of an element that is in the queue by unlinking it
+     * from the bucket for its old key and linking it into the bucket for
+     * the new one, in O(1).
+     *
+     * @throws NoSuchElementException if the element is not in the queue
+     * @throws IllegalArgumentException if the key is greater than the
+     *  element's current key or below the smallest key of the queue
+     * @param element the element
+     * @param key the new key of the element
+     */
+    @Override
+    public void decreaseKey(int element, int key) {
+        if (!queued[element]) {
+            throw new NoSuchElementException("Element is not in the queue: " + element);
+        }
+        if (key > keys[element] || key < cursor) {
+            throw new IllegalArgumentException("Key cannot be increased or go below the window");
+        }
+        unlink(element);
+        keys[element] = key;
+        link(element);
+    }
+
+    /**
+     * Gets the key of the element with the smallest key, moving the cursor
+     * forward past any empty buckets. A single call can pass up to
+     * {@code maxWeight} empty buckets, but the cursor never moves back while
+     * the queue holds elements, so over a whole Dijkstra search all calls
+     * together pass at most as many buckets as the largest distance.
+     *
+     * @throws NoSuchElementException if the queue is empty
+     * @return the smallest key in the queue
+     */
+    @Override
+    public int peekKey() {
+        if (size == 0) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        while (head[cursor % head.length] < 0) {
+            cursor++;
+        }
+        return cursor;
+    }
+
+    /**
+     * Removes the element with the smallest key, which is the first one in
+     * the bucket {@link #peekKey()} stops at. Costs what that call costs,
+     * plus O(1) to unlink the element.
+     *
+     * @throws NoSuchElementException if the queue is empty
+     * @return the element that had the smallest key
+     */
+    @Override
+    public int poll() {
+        int element = head[peekKey() % head.length];
+        unlink(element);
+        queued[element] = false;
+        size--;
+        return element;
+    }
+
+    /**
+     * Removes every element, walking every bucket of the window once, so
+     * it costs O(maxWeight) plus the number of elements in the queue. The
+     * window moves to wherever the next insert puts it.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < head.length; i++) {
+            int element = head[i];
+            while (element >= 0) {
+                queued[element] = false;
+                element = next[element];
+            }
+            head[i] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Adds an element to the front of the bucket for its key.
+     *
+     * @param element the element to add
+     */
+    private void link(int element) {
+        int bucket = keys[element] % head.length;
+        int first = head[bucket];
+        next[element] = first;
+        prev[element] = -1;
+        if (first >= 0) {
+            prev[first] = element;
+        }
+        head[bucket] = element;
+    }
+
+    /**
+     * Removes an element from the bucket for its key.
+     *
+     * @param element the element to remove
+     */
+    private void unlink(int element) {
+        if (prev[element] >= 0) {
+            next[prev[element]] = next[element];
+        } else {
+            head[keys[element] % head.length] = next[element];
+        }
+        if (next[element] >= 0) {
+            prev[next[element]] = prev[element];
+        }
+    }
+}
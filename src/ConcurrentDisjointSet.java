@@ -0,0 +1,199 @@
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A lock-free disjoint set over the ints 0 to n - 1 that many threads can
+ * find and union in at once, as in Anderson and Woll's wait-free union-find.
+ *
+ * Parents live in an AtomicIntegerArray. A find splits the path as it goes,
+ * trying to point every vertex it passes at its grandparent with a
+ * compareAndSet; a failed CAS means another thread already moved that
+ * vertex further up, so it is ignored. By default a union links the root
+ * with the smaller index under the one with the larger index with a
+ * compareAndSet on the root's parent, and tries again from the new roots
+ * if another thread got there first. Since links only ever point at larger
+ * indices, no cycle can form.
+ *
+ * Linking by index builds tall trees when unions come in index order, as
+ * they do along paths. Created with a seed, the set instead gives every
+ * element a random priority, a random permutation of 0 to n - 1, and links
+ * the root with the lower priority under the other, which keeps the
+ * expected depth logarithmic whatever order unions come in (Jayanti and
+ * Tarjan). The priorities never change, so this is as safe as linking by
+ * index.
+ *
+ * Every operation is linearizable: find returns a root v had at some point
+ * during the call, a union that returns true is the one that joined the
+ * two sets, and sameSet returns false only if, at some point during the
+ * call, the sets were different.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class ConcurrentDisjointSet {
+
+    private final AtomicIntegerArray parent;
+    private final int[] priority;
+
+    /**
+     * Creates a disjoint set with every int from 0 to size - 1 in its own
+     * set, which links roots by index.
+     *
+     * @throws IllegalArgumentException if size is negative
+     * @param size the number of elements
+     */
+    public ConcurrentDisjointSet(int size) {
+        this(size, null);
+    }
+
+    /**
+     * Creates a disjoint set with every int from 0 to size - 1 in its own
+     * set, which links roots by random priority.
+     *
+     * @throws IllegalArgumentException if size is negative
+     * @param size the number of elements
+     * @param seed the seed of the random priorities
+     */
+    public ConcurrentDisjointSet(int size, long seed) {
+        this(size, new Random(seed));
+    }
+
+    /**
+     * Creates a disjoint set with every int from 0 to size - 1 in its own
+     * set.
+     *
+     * @throws IllegalArgumentException if size is negative
+     * @param size the number of elements
+     * @param random the source of the priorities, or null to link by index
+     */
+    private ConcurrentDisjointSet(int size, Random random) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size cannot be negative");
+        }
+        parent = new AtomicIntegerArray(size);
+        for (int v = 0; v < size; v++) {
+            parent.set(v, v);
+        }
+        if (random == null) {
+            priority = null;
+            return;
+        }
+        priority = new int[size];
+        for (int v = 0; v < size; v++) {
+            int swap = random.nextInt(v + 1);
+            priority[v] = priority[swap];
+            priority[swap] = v;
+        }
+    }
+
+    /**
+     * Gets the number of elements.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return parent.length();
+    }
+
+    /**
+     * Finds the root of the set v is in, splitting the path on the way. If
+     * other threads are uniting sets at the same time, the root returned
+     * was the root of v at some moment during the call.
+     *
+     * @throws IllegalArgumentException if v is not an element
+     * @param v the element
+     * @return the root of v
+     */
+    public int find(int v) {
+        check(v);
+        return root(v);
+    }
+
+    /**
+     * Unites the sets of two elements, linking the root with the smaller
+     * index or priority under the other.
+     *
+     * @throws IllegalArgumentException if a or b is not an element
+     * @param a the first element
+     * @param b the second element
+     * @return true if this call joined two sets, false if a and b were
+     *         already in the same set
+     */
+    public boolean union(int a, int b) {
+        check(a);
+        check(b);
+        while (true) {
+            int rootA = root(a);
+            int rootB = root(b);
+            if (rootA == rootB) {
+                return false;
+            }
+            int low = rootA;
+            int high = rootB;
+            if (priority == null ? low > high : priority[low] > priority[high]) {
+                low = rootB;
+                high = rootA;
+            }
+            if (parent.compareAndSet(low, low, high)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Checks whether two elements are in the same set. Two roots found
+     * one after the other may be stale, so if they differ, the first is
+     * checked to still be a root; if it is not, the check starts over.
+     *
+     * @throws IllegalArgumentException if a or b is not an element
+     * @param a the first element
+     * @param b the second element
+     * @return true if a and b are in the same set
+     */
+    public boolean sameSet(int a, int b) {
+        check(a);
+        check(b);
+        while (true) {
+            int rootA = root(a);
+            int rootB = root(b);
+            if (rootA == rootB) {
+                return true;
+            }
+            if (parent.get(rootA) == rootA) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Finds the root of v, pointing every vertex on the way at its
+     * grandparent if no other thread has moved it meanwhile.
+     *
+     * @param v the element
+     * @return the root of v
+     */
+    private int root(int v) {
+        int next = parent.get(v);
+        while (next != v) {
+            int grand = parent.get(next);
+            if (grand != next) {
+                parent.compareAndSet(v, next, grand);
+            }
+            v = next;
+            next = grand;
+        }
+        return v;
+    }
+
+    /**
+     * Checks that an int is an element.
+     *
+     * @throws IllegalArgumentException if v is not an element
+     * @param v the int to check
+     */
+    private void check(int v) {
+        if (v < 0 || v >= parent.length()) {
+            throw new IllegalArgumentException("Element is not in the set: " + v);
+        }
+    }
+}
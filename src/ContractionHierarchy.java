@@ -0,0 +1,801 @@
+import java.util.Arrays;
+
+/**
+ * A contraction hierarchy over a graph, for answering many point to point
+ * shortest path queries on a graph that does not change.
+ *
+ * Preprocessing contracts the vertices one at a time, cheapest first. The
+ * cost of a vertex is its edge difference (the number of shortcuts its
+ * contraction would add minus the number of edges it removes) plus the
+ * number of its neighbors already contracted, which spreads contraction
+ * evenly over the graph. Costs change only around a contraction, so the
+ * neighbors of every contracted vertex get their cost recomputed; a vertex
+ * whose cost went up is only moved back in the queue lazily, when it comes
+ * up for contraction. Contracting v removes it from the graph, and for every path
+ * u to v to x, adds a shortcut edge from u to x unless a bounded Dijkstra
+ * search (a witness search) finds another path from u to x that is no
+ * longer.
+ *
+ * The order of contraction is the rank of every vertex. Every shortest path
+ * in the graph with the shortcuts added goes up in rank and then down, so a
+ * query runs Dijkstra's algorithm forward from the source and backward from
+ * the target, both only along edges to higher ranked vertices, which
+ * settles very few vertices. Shortcuts remember the vertex they skip, so the
+ * path found can be unpacked into edges of the original graph.
+ *
+ * Queries are thread safe: every thread gets its own search state.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class ContractionHierarchy {
+
+    /**
+     * The most vertices a witness search settles when contracting a vertex.
+     * Stopping early only adds shortcuts that were not needed.
+     */
+    private static final int CONTRACT_WITNESS_LIMIT = 500;
+
+    /**
+     * The most vertices a witness search settles when only estimating how
+     * many shortcuts contracting a vertex would add.
+     */
+    private static final int ESTIMATE_WITNESS_LIMIT = 20;
+
+    private final int vertexCount;
+    private final int[] rank;
+    private final int[] forwardOffsets;
+    private final int[] forwardTargets;
+    private final int[] forwardWeights;
+    private final int[] forwardMids;
+    private final int[] backwardOffsets;
+    private final int[] backwardSources;
+    private final int[] backwardWeights;
+    private final int[] backwardMids;
+    private final int shortcutCount;
+    private final ThreadLocal<Query> queries = ThreadLocal.withInitial(() -> new Query());
+
+    /**
+     * Builds a contraction hierarchy over a graph in adjacency list format.
+     * The vertices of the graph must be exactly the ints 0 to n - 1.
+     *
+     * @throws IllegalArgumentException if the graph is null or its vertices
+     *  are not numbered 0 to n - 1
+     * @throws IllegalStateException if any of the edges are negative
+     * @param graph the graph to preprocess
+     */
+    public ContractionHierarchy(GraphAdjList graph) {
+        this(graph == null ? null : new CsrGraph(graph));
+    }
+
+    /**
+     * Builds a contraction hierarchy over a graph in CSR format.
+     *
+     * @throws IllegalArgumentException if the graph is null
+     * @throws IllegalStateException if any of the edges are negative
+     * @param graph the graph to preprocess
+     */
+    public ContractionHierarchy(CsrGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null.");
+        }
+        vertexCount = graph.getVertexCount();
+        Contractor contractor = new Contractor(graph);
+        contractor.run();
+        rank = contractor.rank;
+        int n = vertexCount;
+        forwardOffsets = new int[n + 1];
+        backwardOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            forwardOffsets[v + 1] = forwardOffsets[v] + contractor.out[v].size;
+            backwardOffsets[v + 1] = backwardOffsets[v] + contractor.in[v].size;
+        }
+        forwardTargets = new int[forwardOffsets[n]];
+        forwardWeights = new int[forwardOffsets[n]];
+        forwardMids = new int[forwardOffsets[n]];
+        backwardSources = new int[backwardOffsets[n]];
+        backwardWeights = new int[backwardOffsets[n]];
+        backwardMids = new int[backwardOffsets[n]];
+        int shortcuts = 0;
+        for (int v = 0; v < n; v++) {
+            ArcList out = contractor.out[v];
+            System.arraycopy(out.targets, 0, forwardTargets, forwardOffsets[v], out.size);
+            System.arraycopy(out.weights, 0, forwardWeights, forwardOffsets[v], out.size);
+            System.arraycopy(out.mids, 0, forwardMids, forwardOffsets[v], out.size);
+            ArcList in = contractor.in[v];
+            System.arraycopy(in.targets, 0, backwardSources, backwardOffsets[v], in.size);
+            System.arraycopy(in.weights, 0, backwardWeights, backwardOffsets[v], in.size);
+            System.arraycopy(in.mids, 0, backwardMids, backwardOffsets[v], in.size);
+            for (int k = 0; k < out.size; k++) {
+                if (out.mids[k] >= 0) {
+                    shortcuts++;
+                }
+            }
+            for (int k = 0; k < in.size; k++) {
+                if (in.mids[k] >= 0) {
+                    shortcuts++;
+                }
+            }
+        }
+        shortcutCount = shortcuts;
+    }
+
+    /**
+     * Gets the number of vertices of the graph.
+     *
+     * @return the number of vertices
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Gets the position of a vertex in the contraction order.
+     *
+     * @param v the vertex
+     * @return the rank of v, from 0 (contracted first) to n - 1
+     */
+    public int getRank(int v) {
+        return rank[v];
+    }
+
+    /**
+     * Gets the number of shortcut edges preprocessing added.
+     *
+     * @return the number of shortcuts
+     */
+    public int getShortcutCount() {
+        return shortcutCount;
+    }
+
+    /**
+     * Gets the number of edges the queries search, original and shortcut.
+     *
+     * @return the number of edges in the hierarchy
+     */
+    public int getArcCount() {
+        return forwardTargets.length + backwardSources.length;
+    }
+
+    /**
+     * Finds the shortest distance from source to target.
+     *
+     * @throws IllegalArgumentException if source or target doesn't exist in
+     *  the graph
+     * @param source the vertex the path starts at
+     * @param target the vertex the path ends at
+     * @return the distance, or Integer.MAX_VALUE if there is no path
+     */
+    public int distance(int source, int target) {
+        checkVertices(source, target);
+        Query query = queries.get();
+        query.run(source, target);
+        int distance = query.best == Long.MAX_VALUE ? Integer.MAX_VALUE
+                : (int) query.best;
+        query.reset();
+        return distance;
+    }
+
+    /**
+     * Finds a shortest path from source to target, with every shortcut on
+     * it unpacked into edges of the original graph.
+     *
+     * @throws IllegalArgumentException if source or target doesn't exist in
+     *  the graph
+     * @param source the vertex the path starts at
+     * @param target the vertex the path ends at
+     * @return the distance and vertices of a shortest path
+     */
+    public ShortestPath shortestPath(int source, int target) {
+        checkVertices(source, target);
+        Query query = queries.get();
+        int settled = query.run(source, target);
+        if (query.best == Long.MAX_VALUE) {
+            query.reset();
+            return new ShortestPath(source, target, Integer.MAX_VALUE,
+                    new int[0], settled);
+        }
+        PathBuilder path = new PathBuilder();
+        path.add(source);
+        int up = 0;
+        for (int v = query.meet; v != source; v = query.pred[0][v]) {
+            up++;
+        }
+        int[] chain = new int[up + 1];
+        for (int v = query.meet, i = up; i >= 0; v = query.pred[0][v], i--) {
+            chain[i] = v;
+        }
+        for (int i = 1; i <= up; i++) {
+            unpack(chain[i - 1], chain[i], query.predMid[0][chain[i]], path);
+        }
+        for (int v = query.meet; v != target; v = query.pred[1][v]) {
+            unpack(v, query.pred[1][v], query.predMid[1][v], path);
+        }
+        int distance = (int) query.best;
+        query.reset();
+        return new ShortestPath(source, target, distance, path.toArray(),
+                settled);
+    }
+
+    /**
+     * Checks that source and target are vertices of the graph.
+     *
+     * @throws IllegalArgumentException if source or target doesn't exist in
+     *  the graph
+     * @param source the vertex the path starts at
+     * @param target the vertex the path ends at
+     */
+    private void checkVertices(int source, int target) {
+        if (source < 0 || source >= vertexCount || target < 0
+                || target >= vertexCount) {
+            throw new IllegalArgumentException("Source/target is not in the graph");
+        }
+    }
+
+    /**
+     * Appends the vertices of an edge, after the first one, to a path,
+     * replacing shortcuts by the two edges they skip until only edges of the
+     * original graph are left.
+     *
+     * @param from the start of the edge
+     * @param to the end of the edge
+     * @param mid the vertex the edge skips, or -1 if it is an original edge
+     * @param path the path to append to
+     */
+    private void unpack(int from, int to, int mid, PathBuilder path) {
+        int[] stack = new int[48];
+        int top = 0;
+        stack[top++] = from;
+        stack[top++] = to;
+        stack[top++] = mid;
+        while (top > 0) {
+            int m = stack[--top];
+            int b = stack[--top];
+            int a = stack[--top];
+            if (m < 0) {
+                path.add(b);
+                continue;
+            }
+            if (top + 6 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[top++] = m;
+            stack[top++] = b;
+            stack[top++] = forwardMid(m, b);
+            stack[top++] = a;
+            stack[top++] = m;
+            stack[top++] = backwardMid(a, m);
+        }
+    }
+
+    /**
+     * Finds the vertex skipped by the edge from v to a higher ranked vertex.
+     *
+     * @param v the start of the edge
+     * @param to the end of the edge
+     * @return the vertex the edge skips, or -1 if it is an original edge
+     */
+    private int forwardMid(int v, int to) {
+        for (int i = forwardOffsets[v]; i < forwardOffsets[v + 1]; i++) {
+            if (forwardTargets[i] == to) {
+                return forwardMids[i];
+            }
+        }
+        throw new IllegalStateException("Missing edge " + v + " -> " + to);
+    }
+
+    /**
+     * Finds the vertex skipped by the edge from a higher ranked vertex to v.
+     *
+     * @param from the start of the edge
+     * @param v the end of the edge
+     * @return the vertex the edge skips, or -1 if it is an original edge
+     */
+    private int backwardMid(int from, int v) {
+        for (int i = backwardOffsets[v]; i < backwardOffsets[v + 1]; i++) {
+            if (backwardSources[i] == from) {
+                return backwardMids[i];
+            }
+        }
+        throw new IllegalStateException("Missing edge " + from + " -> " + v);
+    }
+
+    /**
+     * The search state of one thread's queries: a distance, predecessor and
+     * heap for each direction, and the vertices touched so they can be reset
+     * without clearing every array.
+     */
+    private final class Query {
+
+        private final int[][] dist = new int[2][vertexCount];
+        private final int[][] pred = new int[2][vertexCount];
+        private final int[][] predMid = new int[2][vertexCount];
+        private final IndexedDaryHeap[] heaps = {new IndexedDaryHeap(vertexCount),
+            new IndexedDaryHeap(vertexCount)};
+        private int[] touched = new int[64];
+        private int touchedCount;
+        private long best;
+        private int meet;
+
+        /**
+         * Creates the search state with every distance infinite.
+         */
+        Query() {
+            Arrays.fill(dist[0], Integer.MAX_VALUE);
+            Arrays.fill(dist[1], Integer.MAX_VALUE);
+        }
+
+        /**
+         * Runs the upward searches from source and target, alternating
+         * between whichever side has the smaller tentative distance. A side
+         * stops once its smallest tentative distance is no less than the
+         * best path found. A vertex is not expanded (it is stalled) if an
+         * edge from a higher ranked vertex already settled by the same side
+         * shows its distance is not a shortest one.
+         *
+         * @param source the vertex the path starts at
+         * @param target the vertex the path ends at
+         * @return the number of vertices settled
+         */
+        int run(int source, int target) {
+            best = Long.MAX_VALUE;
+            meet = -1;
+            reach(0, source, 0, -1, -1);
+            reach(1, target, 0, -1, -1);
+            int settled = 0;
+            while (true) {
+                boolean forward = !heaps[0].isEmpty() && heaps[0].peekKey() < best;
+                boolean backward = !heaps[1].isEmpty() && heaps[1].peekKey() < best;
+                if (!forward && !backward) {
+                    return settled;
+                }
+                int side = forward && (!backward
+                        || heaps[0].peekKey() <= heaps[1].peekKey()) ? 0 : 1;
+                int u = heaps[side].poll();
+                settled++;
+                int du = dist[side][u];
+                if (dist[1 - side][u] != Integer.MAX_VALUE
+                        && (long) du + dist[1 - side][u] < best) {
+                    best = (long) du + dist[1 - side][u];
+                    meet = u;
+                }
+                if (side == 0) {
+                    if (!stalled(0, u, backwardOffsets, backwardSources, backwardWeights)) {
+                        for (int i = forwardOffsets[u]; i < forwardOffsets[u + 1]; i++) {
+                            relax(0, u, forwardTargets[i], du + forwardWeights[i],
+                                    forwardMids[i]);
+                        }
+                    }
+                } else if (!stalled(1, u, forwardOffsets, forwardTargets, forwardWeights)) {
+                    for (int i = backwardOffsets[u]; i < backwardOffsets[u + 1]; i++) {
+                        relax(1, u, backwardSources[i], du + backwardWeights[i],
+                                backwardMids[i]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Checks whether a vertex can be reached for less through an edge
+         * from a higher ranked vertex, searched against that edge's
+         * direction.
+         *
+         * @param side 0 for the forward search, 1 for the backward one
+         * @param u the vertex to check
+         * @param offsets the offsets of the edges leading down to u
+         * @param others the other ends of those edges
+         * @param weights the weights of those edges
+         * @return true if u does not need to be expanded
+         */
+        private boolean stalled(int side, int u, int[] offsets, int[] others,
+                                int[] weights) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int d = dist[side][others[i]];
+                if (d != Integer.MAX_VALUE && (long) d + weights[i] < dist[side][u]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Lowers the tentative distance of a vertex if the new one is
+         * shorter.
+         *
+         * @param side 0 for the forward search, 1 for the backward one
+         * @param u the vertex the edge was followed from
+         * @param v the vertex reached
+         * @param candidate the distance of v through u
+         * @param mid the vertex the edge skips, or -1
+         */
+        private void relax(int side, int u, int v, int candidate, int mid) {
+            if (candidate < dist[side][v]) {
+                reach(side, v, candidate, u, mid);
+            }
+        }
+
+        /**
+         * Sets the tentative distance of a vertex and queues it.
+         *
+         * @param side 0 for the forward search, 1 for the backward one
+         * @param v the vertex reached
+         * @param d its new distance
+         * @param from the vertex it was reached from, or -1
+         * @param mid the vertex the edge skips, or -1
+         */
+        private void reach(int side, int v, int d, int from, int mid) {
+            if (dist[side][v] == Integer.MAX_VALUE) {
+                if (dist[1 - side][v] == Integer.MAX_VALUE) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = v;
+                }
+                heaps[side].insert(v, d);
+            } else {
+                heaps[side].decreaseKey(v, d);
+            }
+            dist[side][v] = d;
+            pred[side][v] = from;
+            predMid[side][v] = mid;
+        }
+
+        /**
+         * Puts back every distance the last query touched.
+         */
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                dist[0][touched[i]] = Integer.MAX_VALUE;
+                dist[1][touched[i]] = Integer.MAX_VALUE;
+            }
+            touchedCount = 0;
+            heaps[0].clear();
+            heaps[1].clear();
+        }
+    }
+
+    /**
+     * The vertices of a path, in a growable int array.
+     */
+    private static final class PathBuilder {
+
+        private int[] vertices = new int[16];
+        private int size;
+
+        /**
+         * Adds a vertex to the end of the path.
+         *
+         * @param v the vertex to add
+         */
+        void add(int v) {
+            if (size == vertices.length) {
+                vertices = Arrays.copyOf(vertices, size * 2);
+            }
+            vertices[size++] = v;
+        }
+
+        /**
+         * Copies the path into an array.
+         *
+         * @return the vertices of the path
+         */
+        int[] toArray() {
+            return Arrays.copyOf(vertices, size);
+        }
+    }
+
+    /**
+     * The edges into or out of one vertex while the graph is being
+     * contracted, as growable parallel arrays of the other end, the weight
+     * and the vertex skipped (-1 for original edges).
+     */
+    private static final class ArcList {
+
+        private int[] targets = new int[4];
+        private int[] weights = new int[4];
+        private int[] mids = new int[4];
+        private int size;
+
+        /**
+         * Finds the edge to or from a vertex.
+         *
+         * @param v the other end of the edge
+         * @return the index of the edge, or -1 if there is none
+         */
+        int indexOf(int v) {
+            for (int k = 0; k < size; k++) {
+                if (targets[k] == v) {
+                    return k;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Adds an edge.
+         *
+         * @param v the other end of the edge
+         * @param weight the weight of the edge
+         * @param mid the vertex the edge skips, or -1
+         */
+        void add(int v, int weight, int mid) {
+            if (size == targets.length) {
+                targets = Arrays.copyOf(targets, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                mids = Arrays.copyOf(mids, size * 2);
+            }
+            targets[size] = v;
+            weights[size] = weight;
+            mids[size] = mid;
+            size++;
+        }
+
+        /**
+         * Removes the edge to or from a vertex, if there is one, by moving
+         * the last edge into its place.
+         *
+         * @param v the other end of the edge
+         */
+        void remove(int v) {
+            int k = indexOf(v);
+            if (k >= 0) {
+                size--;
+                targets[k] = targets[size];
+                weights[k] = weights[size];
+                mids[k] = mids[size];
+            }
+        }
+    }
+
+    /**
+     * The graph while it is being contracted. Every vertex has the edges out
+     * of it and into it that are still in the graph; once a vertex is
+     * contracted its lists are frozen and become its upward edges in the
+     * hierarchy.
+     */
+    private static final class Contractor {
+
+        private final int n;
+        private final ArcList[] out;
+        private final ArcList[] in;
+        private final int[] rank;
+        private final int[] priorities;
+        private final int[] contractedNeighbors;
+        private final int[] mark;
+        private final int[] targetMark;
+        private final int[] witnessDist;
+        private final IndexedDaryHeap witnessHeap;
+        private int[] touched = new int[64];
+        private int touchedCount;
+
+        /**
+         * Copies the edges of a graph, dropping self loops and keeping the
+         * lightest of parallel edges.
+         *
+         * @throws IllegalStateException if any of the edges are negative
+         * @param graph the graph to contract
+         */
+        Contractor(CsrGraph graph) {
+            n = graph.getVertexCount();
+            out = new ArcList[n];
+            in = new ArcList[n];
+            for (int v = 0; v < n; v++) {
+                out[v] = new ArcList();
+                in[v] = new ArcList();
+            }
+            int[] offsets = graph.getOffsets();
+            int[] targets = graph.getTargets();
+            int[] weights = graph.getWeights();
+            for (int u = 0; u < n; u++) {
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    if (weights[i] < 0) {
+                        throw new IllegalStateException("Edge cannot be negative");
+                    }
+                    if (targets[i] != u) {
+                        addArc(u, targets[i], weights[i], -1);
+                    }
+                }
+            }
+            rank = new int[n];
+            priorities = new int[n];
+            contractedNeighbors = new int[n];
+            mark = new int[n];
+            targetMark = new int[n];
+            witnessDist = new int[n];
+            Arrays.fill(witnessDist, Integer.MAX_VALUE);
+            witnessHeap = new IndexedDaryHeap(n);
+        }
+
+        /**
+         * Contracts every vertex, cheapest first.
+         */
+        void run() {
+            IndexedDaryHeap queue = new IndexedDaryHeap(n);
+            for (int v = 0; v < n; v++) {
+                priorities[v] = priority(v);
+                queue.insert(v, priorities[v]);
+            }
+            int next = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                if (!queue.isEmpty() && priorities[v] > queue.peekKey()) {
+                    queue.insert(v, priorities[v]);
+                    continue;
+                }
+                rank[v] = next++;
+                contract(v);
+                updateNeighbors(v, out[v], queue);
+                updateNeighbors(v, in[v], queue);
+            }
+        }
+
+        /**
+         * Counts a contraction toward the priority of every neighbor of a
+         * contracted vertex, recomputes their priorities, and lowers their
+         * place in the queue if their priority went down. Priorities that
+         * went up are caught when the vertex is polled.
+         *
+         * @param v the vertex just contracted
+         * @param arcs the edges out of or into v
+         * @param queue the vertices left to contract
+         */
+        private void updateNeighbors(int v, ArcList arcs, IndexedDaryHeap queue) {
+            for (int k = 0; k < arcs.size; k++) {
+                int w = arcs.targets[k];
+                if (mark[w] == v + 1) {
+                    continue;
+                }
+                mark[w] = v + 1;
+                contractedNeighbors[w]++;
+                priorities[w] = priority(w);
+                if (priorities[w] < queue.getKey(w)) {
+                    queue.decreaseKey(w, priorities[w]);
+                }
+            }
+        }
+
+        /**
+         * Estimates the cost of contracting a vertex now.
+         *
+         * @param v the vertex
+         * @return the edge difference of v plus its contracted neighbors
+         */
+        private int priority(int v) {
+            return shortcuts(v, false) - out[v].size - in[v].size
+                + contractedNeighbors[v];
+        }
+
+        /**
+         * Removes a vertex from the graph and adds the shortcuts needed to
+         * keep every distance between the vertices left the same.
+         *
+         * @param v the vertex to contract
+         */
+        private void contract(int v) {
+            for (int k = 0; k < in[v].size; k++) {
+                out[in[v].targets[k]].remove(v);
+            }
+            for (int k = 0; k < out[v].size; k++) {
+                in[out[v].targets[k]].remove(v);
+            }
+            shortcuts(v, true);
+        }
+
+        /**
+         * Finds the shortcuts contracting a vertex needs: for every pair of
+         * an edge u to v and an edge v to x, a shortcut is needed unless a
+         * witness search from u that avoids v reaches x for no more.
+         *
+         * @param v the vertex being contracted
+         * @param add true to add the shortcuts (v must be removed from the
+         *        graph already), false to only count them
+         * @return the number of shortcuts needed
+         */
+        private int shortcuts(int v, boolean add) {
+            ArcList ins = in[v];
+            ArcList outs = out[v];
+            if (ins.size == 0 || outs.size == 0) {
+                return 0;
+            }
+            int maxOut = 0;
+            for (int b = 0; b < outs.size; b++) {
+                maxOut = Math.max(maxOut, outs.weights[b]);
+                targetMark[outs.targets[b]] = v + 1;
+            }
+            int count = 0;
+            for (int a = 0; a < ins.size; a++) {
+                int u = ins.targets[a];
+                int w1 = ins.weights[a];
+                witnessSearch(u, v, outs.size, w1 + maxOut,
+                        add ? CONTRACT_WITNESS_LIMIT : ESTIMATE_WITNESS_LIMIT);
+                for (int b = 0; b < outs.size; b++) {
+                    int x = outs.targets[b];
+                    int weight = w1 + outs.weights[b];
+                    if (x != u && witnessDist[x] > weight) {
+                        count++;
+                        if (add) {
+                            addArc(u, x, weight, v);
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Runs Dijkstra's algorithm from a vertex over the graph left,
+         * skipping one vertex, until it has settled every target (the
+         * vertices marked in targetMark with {@code skip + 1}), passes a
+         * distance or has settled a number of vertices. Leaves the
+         * distances found in witnessDist.
+         *
+         * @param source the vertex to search from
+         * @param skip the vertex to pass over
+         * @param targetCount the number of targets
+         * @param maxDist the largest distance worth searching
+         * @param limit the most vertices to settle
+         */
+        private void witnessSearch(int source, int skip, int targetCount,
+                                   int maxDist, int limit) {
+            for (int i = 0; i < touchedCount; i++) {
+                witnessDist[touched[i]] = Integer.MAX_VALUE;
+            }
+            touchedCount = 0;
+            witnessHeap.clear();
+            witnessDist[source] = 0;
+            touched[touchedCount++] = source;
+            witnessHeap.insert(source, 0);
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && settled < limit && targetCount > 0
+                    && witnessHeap.peekKey() <= maxDist) {
+                int d = witnessHeap.peekKey();
+                int u = witnessHeap.poll();
+                settled++;
+                if (targetMark[u] == skip + 1) {
+                    targetCount--;
+                }
+                ArcList arcs = out[u];
+                for (int k = 0; k < arcs.size; k++) {
+                    int x = arcs.targets[k];
+                    int candidate = d + arcs.weights[k];
+                    if (x == skip || candidate >= witnessDist[x]) {
+                        continue;
+                    }
+                    if (witnessDist[x] == Integer.MAX_VALUE) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = x;
+                        witnessHeap.insert(x, candidate);
+                    } else {
+                        witnessHeap.decreaseKey(x, candidate);
+                    }
+                    witnessDist[x] = candidate;
+                }
+            }
+        }
+
+        /**
+         * Adds an edge from u to x, or lowers the weight of the one already
+         * there if the new edge is lighter.
+         *
+         * @param u the start of the edge
+         * @param x the end of the edge
+         * @param weight the weight of the edge
+         * @param mid the vertex the edge skips, or -1
+         */
+        private void addArc(int u, int x, int weight, int mid) {
+            int k = out[u].indexOf(x);
+            if (k < 0) {
+                out[u].add(x, weight, mid);
+                in[x].add(u, weight, mid);
+            } else if (weight < out[u].weights[k]) {
+                out[u].weights[k] = weight;
+                out[u].mids[k] = mid;
+                int j = in[x].indexOf(u);
+                in[x].weights[j] = weight;
+                in[x].mids[j] = mid;
+            }
+        }
+    }
+}
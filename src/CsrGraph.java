@@ -0,0 +1,316 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable graph stored in compressed sparse row (CSR) format. The
+ * vertices are the ints 0 to {@code getVertexCount() - 1}. The neighbors of
+ * vertex v are {@code targets[offsets[v]]} up to (but not including)
+ * {@code targets[offsets[v + 1]]}, and the weight of each of those edges is
+ * stored at the same index of {@code weights}.
+ *
+ * Neighbors are stored in the same order that GraphAdjList stores them, so an
+ * algorithm run on a CsrGraph visits vertices in the same order as the same
+ * algorithm run on the GraphAdjList it was built from.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class CsrGraph {
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final boolean directed;
+    private final int minWeight;
+    private final int maxWeight;
+    private volatile CsrGraph reverse;
+
+    /**
+     * Builds a CsrGraph from a graph in adjacency list format. The vertices
+     * of the graph must be exactly the ints 0 to n - 1.
+     *
+     * @throws IllegalArgumentException if the graph is null or its vertices
+     *  are not numbered 0 to n - 1
+     * @param graph the graph to copy
+     */
+    public CsrGraph(GraphAdjList graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null.");
+        }
+        Map<Integer, List<VertexDistancePair>> adjList = graph.getAdjacencyList();
+        int n = adjList.size();
+        offsets = new int[n + 1];
+        for (Integer v : adjList.keySet()) {
+            if (v < 0 || v >= n) {
+                throw new IllegalArgumentException("Vertices must be numbered 0 to n - 1");
+            }
+            offsets[v + 1] = adjList.get(v).size();
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        targets = new int[offsets[n]];
+        weights = new int[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            int i = offsets[v];
+            for (VertexDistancePair pair : adjList.get(v)) {
+                targets[i] = pair.getVertex();
+                weights[i] = pair.getDistance();
+                i++;
+            }
+        }
+        directed = graph.isDirected();
+        minWeight = min(weights);
+        maxWeight = max(weights);
+    }
+
+    /**
+     * Builds a CsrGraph directly from a set of edges, the same way
+     * GraphAdjList does: an undirected edge is stored once from each of its
+     * endpoints, and a directed edge only from its starting vertex.
+     *
+     * @throws IllegalArgumentException if the edge set is null, the vertex
+     *  count is negative, or an edge has an endpoint outside 0 to
+     *  {@code vertexCount - 1}
+     * @param vertexCount the number of vertices in the graph
+     * @param edges the edges of the graph
+     */
+    public CsrGraph(int vertexCount, Set<Edge> edges) {
+        if (edges == null || vertexCount < 0) {
+            throw new IllegalArgumentException("Edges are null or vertex count is negative");
+        }
+        offsets = new int[vertexCount + 1];
+        boolean anyDirected = false;
+        for (Edge e : edges) {
+            if (e.getU() < 0 || e.getU() >= vertexCount
+                    || e.getV() < 0 || e.getV() >= vertexCount) {
+                throw new IllegalArgumentException("Edge endpoint out of range: " + e);
+            }
+            offsets[e.getU() + 1]++;
+            if (!e.isDirected()) {
+                offsets[e.getV() + 1]++;
+            } else {
+                anyDirected = true;
+            }
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        targets = new int[offsets[vertexCount]];
+        weights = new int[offsets[vertexCount]];
+        int[] next = new int[vertexCount];
+        System.arraycopy(offsets, 0, next, 0, vertexCount);
+        for (Edge e : edges) {
+            int i = next[e.getU()]++;
+            targets[i] = e.getV();
+            weights[i] = e.getWeight();
+            if (!e.isDirected()) {
+                i = next[e.getV()]++;
+                targets[i] = e.getU();
+                weights[i] = e.getWeight();
+            }
+        }
+        directed = anyDirected;
+        minWeight = min(weights);
+        maxWeight = max(weights);
+    }
+
+    /**
+     * Builds a CsrGraph from arrays that are already in CSR format. The
+     * arrays are used directly, not copied.
+     *
+     * @param offsets the index of the first neighbor of every vertex
+     * @param targets the neighbors of every vertex
+     * @param weights the weight of the edge to every neighbor
+     * @param directed whether or not the edges are directed
+     */
+    private CsrGraph(int[] offsets, int[] targets, int[] weights,
+                     boolean directed) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.directed = directed;
+        minWeight = min(weights);
+        maxWeight = max(weights);
+    }
+
+    /**
+     * Finds the smallest entry of an array.
+     *
+     * @param array the array to search
+     * @return the smallest entry, or 0 if the array is empty
+     */
+    private static int min(int[] array) {
+        int min = array.length == 0 ? 0 : Integer.MAX_VALUE;
+        for (int x : array) {
+            min = Math.min(min, x);
+        }
+        return min;
+    }
+
+    /**
+     * Finds the largest entry of an array.
+     *
+     * @param array the array to search
+     * @return the largest entry, or 0 if the array is empty
+     */
+    private static int max(int[] array) {
+        int max = array.length == 0 ? 0 : Integer.MIN_VALUE;
+        for (int x : array) {
+            max = Math.max(max, x);
+        }
+        return max;
+    }
+
+    /**
+     * Gets this graph with the direction of every edge reversed, so that the
+     * neighbors of v in the reversed graph are the vertices with an edge to
+     * v. An undirected graph is its own reverse. The reversed graph is built
+     * the first time it is asked for and kept afterwards.
+     *
+     * @return the reverse of this graph
+     */
+    public CsrGraph reverse() {
+        if (!directed) {
+            return this;
+        }
+        CsrGraph result = reverse;
+        if (result == null) {
+            int n = getVertexCount();
+            int[] revOffsets = new int[n + 1];
+            for (int target : targets) {
+                revOffsets[target + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                revOffsets[v + 1] += revOffsets[v];
+            }
+            int[] revTargets = new int[targets.length];
+            int[] revWeights = new int[targets.length];
+            int[] next = Arrays.copyOf(revOffsets, n);
+            for (int u = 0; u < n; u++) {
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int j = next[targets[i]]++;
+                    revTargets[j] = u;
+                    revWeights[j] = weights[i];
+                }
+            }
+            result = new CsrGraph(revOffsets, revTargets, revWeights, true);
+            result.reverse = this;
+            reverse = result;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of vertices in this graph.
+     *
+     * @return the number of vertices in this graph
+     */
+    public int getVertexCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Gets the number of adjacency entries in this graph. Every undirected
+     * edge is counted twice, once from each endpoint.
+     *
+     * @return the length of the targets and weights arrays
+     */
+    public int getArcCount() {
+        return targets.length;
+    }
+
+    /**
+     * Gets the offsets array. Entry v is the index of the first neighbor of
+     * v, and entry {@code getVertexCount()} is {@code getArcCount()}.
+     *
+     * The array is shared with this graph and must not be modified.
+     *
+     * @return the offsets array of this graph
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Gets the targets array, which holds the neighbors of every vertex.
+     *
+     * The array is shared with this graph and must not be modified.
+     *
+     * @return the targets array of this graph
+     */
+    public int[] getTargets() {
+        return targets;
+    }
+
+    /**
+     * Gets the weights array, which holds the weight of the edge to the
+     * neighbor at the same index of the targets array.
+     *
+     * The array is shared with this graph and must not be modified.
+     *
+     * @return the weights array of this graph
+     */
+    public int[] getWeights() {
+        return weights;
+    }
+
+    /**
+     * Gets the number of neighbors of a vertex.
+     *
+     * @param v the vertex
+     * @return the out degree of v
+     */
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * Finds the vertex that the adjacency entry at {@code arc} belongs to.
+     *
+     * @param arc an index into the targets array
+     * @return the vertex whose neighbor list contains {@code arc}
+     */
+    public int sourceOf(int arc) {
+        int low = 0;
+        int high = offsets.length - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= arc) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the smallest edge weight of this graph.
+     *
+     * @return the smallest edge weight, or 0 if there are no edges
+     */
+    public int getMinWeight() {
+        return minWeight;
+    }
+
+    /**
+     * Gets the largest edge weight of this graph.
+     *
+     * @return the largest edge weight, or 0 if there are no edges
+     */
+    public int getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Gets whether or not the edges of this graph are directed.
+     *
+     * @return true if this graph is directed, false otherwise
+     */
+    public boolean isDirected() {
+        return directed;
+    }
+}
@@ -0,0 +1,302 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Delta-stepping single source shortest paths (Meyer and Sanders). Used by
+ * {@link GraphAlgs#shortPathDeltaStepping(int, CsrGraph, int, ForkJoinPool)}.
+ *
+ * Vertices are kept in buckets of width delta by tentative distance. The
+ * smallest non-empty bucket is emptied in phases: every phase relaxes the
+ * light edges (weight at most delta) out of all its vertices in parallel,
+ * which may put vertices back into the same bucket. Once the bucket stays
+ * empty, the heavy edges out of every vertex that passed through it are
+ * relaxed in parallel, and the next bucket is processed. Distances are
+ * lowered with compare-and-set, so the result is the same as Dijkstra's.
+ *
+ * A vertex is never put more than the largest edge weight past the bucket
+ * being processed, so only ceil(maxWeight / delta) + 1 buckets are ever in
+ * use at once. The buckets are kept in a cyclic array of that length,
+ * indexed by bucket number modulo the length, and the search stops as soon
+ * as no bucket holds a vertex instead of walking to the largest distance.
+ * A bitmap of the slots in use lets the search jump over runs of empty
+ * buckets 64 at a time.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+final class DeltaStepping {
+
+    /**
+     * The number of vertices a relax task handles without splitting.
+     */
+    private static final int CHUNK = 512;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int delta;
+    private final ForkJoinPool pool;
+    private final AtomicIntegerArray dist;
+    private final int[][] buckets;
+    private final int[] bucketSizes;
+    private final long[] occupied;
+    private long pending;
+
+    /**
+     * Sets up a search over a graph.
+     *
+     * @param graph the graph to search
+     * @param delta the bucket width
+     * @param pool the pool to relax edges on
+     */
+    private DeltaStepping(CsrGraph graph, int delta, ForkJoinPool pool) {
+        offsets = graph.getOffsets();
+        targets = graph.getTargets();
+        weights = graph.getWeights();
+        this.delta = delta;
+        this.pool = pool;
+        dist = new AtomicIntegerArray(graph.getVertexCount());
+        long span = (Math.max(0, graph.getMaxWeight()) + (long) delta - 1) / delta;
+        int length = (int) Math.min(Integer.MAX_VALUE - 8, span + 1);
+        buckets = new int[length][];
+        bucketSizes = new int[length];
+        occupied = new long[(length + 63) >>> 6];
+    }
+
+    /**
+     * Picks a bucket width for a graph: the largest edge weight divided by
+     * the average degree, which keeps the number of light edges relaxed more
+     * than once small on graphs with random weights.
+     *
+     * @param graph the graph to search
+     * @return the default bucket width, at least 1
+     */
+    static int defaultDelta(CsrGraph graph) {
+        if (graph.getVertexCount() == 0 || graph.getArcCount() == 0) {
+            return 1;
+        }
+        long degree = Math.max(1, graph.getArcCount() / graph.getVertexCount());
+        return (int) Math.max(1, graph.getMaxWeight() / degree);
+    }
+
+    /**
+     * Finds the shortest distance from start to every vertex.
+     *
+     * @throws IllegalStateException if an edge out of a reached vertex is
+     *  negative
+     * @param start the vertex to start at
+     * @param graph the graph to search
+     * @param delta the bucket width
+     * @param pool the pool to relax edges on
+     * @return the distance to every vertex, Integer.MAX_VALUE if unreachable
+     */
+    static int[] search(int start, CsrGraph graph, int delta,
+                        ForkJoinPool pool) {
+        DeltaStepping search = new DeltaStepping(graph, delta, pool);
+        return search.run(start, graph.getVertexCount());
+    }
+
+    /**
+     * Runs the bucket phases.
+     *
+     * @param start the vertex to start at
+     * @param n the number of vertices
+     * @return the distance to every vertex
+     */
+    private int[] run(int start, int n) {
+        for (int v = 0; v < n; v++) {
+            dist.set(v, Integer.MAX_VALUE);
+        }
+        dist.set(start, 0);
+        addToBucket(start);
+        int[] mark = new int[n];
+        int[] removedFrom = new int[n];
+        int[] removed = new int[16];
+        int i = -1;
+        while (pending > 0) {
+            int slot = nextOccupied((i + 1) % buckets.length);
+            i += 1 + Math.floorMod(slot - (i + 1), buckets.length);
+            int removedCount = 0;
+            while (bucketSizes[slot] > 0) {
+                int[] frontier = buckets[slot];
+                int size = bucketSizes[slot];
+                buckets[slot] = null;
+                bucketSizes[slot] = 0;
+                occupied[slot >>> 6] &= ~(1L << slot);
+                pending -= size;
+                int count = 0;
+                for (int k = 0; k < size; k++) {
+                    int v = frontier[k];
+                    if (dist.get(v) / delta == i && mark[v] != i + 1) {
+                        mark[v] = i + 1;
+                        frontier[count++] = v;
+                        if (removedFrom[v] != i + 1) {
+                            removedFrom[v] = i + 1;
+                            if (removedCount == removed.length) {
+                                removed = Arrays.copyOf(removed, removedCount * 2);
+                            }
+                            removed[removedCount++] = v;
+                        }
+                    }
+                }
+                relax(frontier, count, true);
+                for (int k = 0; k < count; k++) {
+                    mark[frontier[k]] = 0;
+                }
+            }
+            relax(removed, removedCount, false);
+        }
+        int[] result = new int[n];
+        for (int v = 0; v < n; v++) {
+            result[v] = dist.get(v);
+        }
+        return result;
+    }
+
+    /**
+     * Relaxes the light or heavy edges out of some vertices in parallel and
+     * puts every vertex whose distance went down into its bucket.
+     *
+     * @param vertices the vertices to relax the edges of
+     * @param count the number of vertices to use from the array
+     * @param light true for edges of weight at most delta, false for the rest
+     */
+    private void relax(int[] vertices, int count, boolean light) {
+        if (count == 0) {
+            return;
+        }
+        int chunks = (count + CHUNK - 1) / CHUNK;
+        int[][] updated = new int[chunks][];
+        int[] updatedCounts = new int[chunks];
+        RelaxTask task = new RelaxTask(vertices, count, 0, chunks, light,
+                updated, updatedCounts);
+        if (chunks == 1) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        for (int c = 0; c < chunks; c++) {
+            for (int k = 0; k < updatedCounts[c]; k++) {
+                addToBucket(updated[c][k]);
+            }
+        }
+    }
+
+    /**
+     * Adds a vertex to the bucket for its current distance, in the slot of
+     * the cyclic bucket array that bucket maps to.
+     *
+     * @param v the vertex to add
+     */
+    private void addToBucket(int v) {
+        int i = dist.get(v) / delta % buckets.length;
+        pending++;
+        occupied[i >>> 6] |= 1L << i;
+        if (buckets[i] == null) {
+            buckets[i] = new int[8];
+        } else if (bucketSizes[i] == buckets[i].length) {
+            buckets[i] = Arrays.copyOf(buckets[i], bucketSizes[i] * 2);
+        }
+        buckets[i][bucketSizes[i]++] = v;
+    }
+
+    /**
+     * Finds the first slot in use at or after a slot, wrapping around the
+     * end of the bucket array. At least one slot must be in use.
+     *
+     * @param from the slot to start looking at
+     * @return the first slot in use, cyclically from from
+     */
+    private int nextOccupied(int from) {
+        int word = from >>> 6;
+        long bits = occupied[word] & (-1L << from);
+        while (bits == 0) {
+            word = word + 1 == occupied.length ? 0 : word + 1;
+            bits = occupied[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Relaxes the edges out of the vertices of the chunks
+     * {@code [firstChunk, lastChunk)}, splitting in half until a single
+     * chunk is left, and records the vertices whose distance went down.
+     */
+    private final class RelaxTask extends RecursiveAction {
+
+        private final int[] vertices;
+        private final int count;
+        private final int firstChunk;
+        private final int lastChunk;
+        private final boolean light;
+        private final int[][] updated;
+        private final int[] updatedCounts;
+
+        /**
+         * Creates a task for a range of chunks.
+         *
+         * @param vertices the vertices to relax the edges of
+         * @param count the number of vertices to use from the array
+         * @param firstChunk the first chunk of this task
+         * @param lastChunk one past the last chunk of this task
+         * @param light whether to relax the light or the heavy edges
+         * @param updated the updated vertices of every chunk
+         * @param updatedCounts the number of updated vertices of every chunk
+         */
+        RelaxTask(int[] vertices, int count, int firstChunk, int lastChunk,
+                  boolean light, int[][] updated, int[] updatedCounts) {
+            this.vertices = vertices;
+            this.count = count;
+            this.firstChunk = firstChunk;
+            this.lastChunk = lastChunk;
+            this.light = light;
+            this.updated = updated;
+            this.updatedCounts = updatedCounts;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastChunk - firstChunk > 1) {
+                int mid = (firstChunk + lastChunk) >>> 1;
+                invokeAll(new RelaxTask(vertices, count, firstChunk, mid, light,
+                                updated, updatedCounts),
+                        new RelaxTask(vertices, count, mid, lastChunk, light,
+                                updated, updatedCounts));
+                return;
+            }
+            int[] buffer = new int[16];
+            int size = 0;
+            int to = Math.min(count, (firstChunk + 1) * CHUNK);
+            for (int k = firstChunk * CHUNK; k < to; k++) {
+                int u = vertices[k];
+                int du = dist.get(u);
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int w = weights[i];
+                    if (w < 0) {
+                        throw new IllegalStateException("Edge cannot be negative");
+                    }
+                    if ((w <= delta) != light) {
+                        continue;
+                    }
+                    int v = targets[i];
+                    int candidate = du + w;
+                    int current = dist.get(v);
+                    while (candidate < current) {
+                        if (dist.compareAndSet(v, current, candidate)) {
+                            if (size == buffer.length) {
+                                buffer = Arrays.copyOf(buffer, size * 2);
+                            }
+                            buffer[size++] = v;
+                            break;
+                        }
+                        current = dist.get(v);
+                    }
+                }
+            }
+            updated[firstChunk] = buffer;
+            updatedCounts[firstChunk] = size;
+        }
+    }
+}
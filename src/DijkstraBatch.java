@@ -0,0 +1,126 @@
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs Dijkstra's algorithm from many sources in parallel. Used by
+ * {@link GraphAlgs#shortPathDijkBatch(int[], CsrGraph, ShortestPathCallback, ForkJoinPool)}.
+ *
+ * The sources are split in halves down to single sources, so idle workers
+ * steal whatever is left and uneven searches even out. A search borrows a
+ * workspace (distance and predecessor arrays and a queue) from a stack the
+ * batch owns, creating one only if every workspace is in use, and puts it
+ * back when it is done. A batch therefore allocates O(V) memory per search
+ * running at once, not per source, and all of it is garbage once the batch
+ * returns; nothing is left pinned to the pool's threads.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+final class DijkstraBatch {
+
+    private final int[] sources;
+    private final CsrGraph graph;
+    private final ShortestPathCallback callback;
+    private final ConcurrentLinkedDeque<Workspace> workspaces =
+            new ConcurrentLinkedDeque<>();
+
+    /**
+     * Sets up a batch.
+     *
+     * @param sources the vertices to search from
+     * @param graph the graph to search
+     * @param callback the receiver of every result
+     */
+    private DijkstraBatch(int[] sources, CsrGraph graph,
+                          ShortestPathCallback callback) {
+        this.sources = sources;
+        this.graph = graph;
+        this.callback = callback;
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from every source and hands each result to
+     * the callback. Returns once every source is done.
+     *
+     * @throws IllegalStateException if any of the edges searched are
+     *  negative
+     * @param sources the vertices to search from
+     * @param graph the graph to search
+     * @param callback the receiver of every result
+     * @param pool the pool to run the searches on
+     */
+    static void run(int[] sources, CsrGraph graph, ShortestPathCallback callback,
+                    ForkJoinPool pool) {
+        if (sources.length == 0) {
+            return;
+        }
+        DijkstraBatch batch = new DijkstraBatch(sources, graph, callback);
+        pool.invoke(batch.new SourceTask(0, sources.length));
+    }
+
+    /**
+     * The arrays and queue one search runs with.
+     */
+    private static final class Workspace {
+
+        private final int[] dist;
+        private final int[] pred;
+        private final IndexedPriorityQueue queue;
+
+        /**
+         * Creates a workspace for a graph.
+         *
+         * @param graph the graph to search
+         */
+        Workspace(CsrGraph graph) {
+            dist = new int[graph.getVertexCount()];
+            pred = new int[graph.getVertexCount()];
+            queue = GraphAlgs.newQueue(graph);
+        }
+    }
+
+    /**
+     * Searches from the sources {@code [from, to)}, splitting in half until
+     * a single source is left.
+     */
+    private final class SourceTask extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+
+        /**
+         * Creates a task for a range of sources.
+         *
+         * @param from the index of the first source of this task
+         * @param to one past the index of the last source of this task
+         */
+        SourceTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SourceTask(from, mid), new SourceTask(mid, to));
+                return;
+            }
+            Workspace workspace = workspaces.pollFirst();
+            if (workspace == null) {
+                workspace = new Workspace(graph);
+            }
+            try {
+                int source = sources[from];
+                workspace.queue.clear();
+                GraphAlgs.dijkstra(source, graph, workspace.queue, workspace.dist,
+                        workspace.pred);
+                callback.accept(new ShortestPathTree(source, workspace.dist,
+                        workspace.pred));
+            } finally {
+                workspaces.addFirst(workspace);
+            }
+        }
+    }
+}
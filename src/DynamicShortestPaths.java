@@ -0,0 +1,308 @@
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Shortest distances from one source that are kept up to date while edges
+ * are added to the graph or made lighter, without searching the whole
+ * graph again.
+ *
+ * Adding an edge or lowering a weight can only make distances shorter, and
+ * only for vertices whose shortest path now goes through the changed edge.
+ * As in the algorithm of Ramalingam and Reps, the end of the edge is
+ * relaxed through it, and if its distance went down, Dijkstra's algorithm
+ * runs from it over only the vertices whose distance keeps going down. An
+ * update therefore costs time in the number of vertices it changes and
+ * their edges, not in the size of the graph.
+ *
+ * The graph passed in is never changed. Only its weights are copied, so
+ * that they can be lowered; its offsets and targets are shared read-only,
+ * and added edges are kept in arrays of their own for every vertex.
+ * Removing edges and raising weights are not supported. This class is not
+ * thread safe.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class DynamicShortestPaths {
+
+    private final int source;
+    private final boolean directed;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[][] addedTargets;
+    private final int[][] addedWeights;
+    private final int[] addedCount;
+    private final int[] dist;
+    private final int[] pred;
+    private final IndexedDaryHeap heap;
+    private int lastChangedCount;
+
+    /**
+     * Runs Dijkstra's algorithm from source on a graph in adjacency list
+     * format. The vertices of the graph must be numbered 0 to n - 1.
+     *
+     * @throws IllegalArgumentException if the graph is null, or if source
+     *  doesn't exist in the graph
+     * @throws IllegalStateException if any of the edges are negative
+     * @param source the vertex to start at
+     * @param graph the graph to search
+     */
+    public DynamicShortestPaths(int source, GraphAdjList graph) {
+        this(source, graph == null ? null : new CsrGraph(graph));
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from source on a graph in CSR format.
+     *
+     * @throws IllegalArgumentException if the graph is null, or if source
+     *  doesn't exist in the graph
+     * @throws IllegalStateException if any of the edges are negative
+     * @param source the vertex to start at
+     * @param graph the graph to search
+     */
+    public DynamicShortestPaths(int source, CsrGraph graph) {
+        if (graph == null || source < 0 || source >= graph.getVertexCount()) {
+            throw new IllegalArgumentException("Input is null or start is not in the graph");
+        }
+        int n = graph.getVertexCount();
+        this.source = source;
+        directed = graph.isDirected();
+        offsets = graph.getOffsets();
+        targets = graph.getTargets();
+        weights = graph.getWeights().clone();
+        addedTargets = new int[n][];
+        addedWeights = new int[n][];
+        addedCount = new int[n];
+        dist = new int[n];
+        pred = new int[n];
+        GraphAlgs.dijkstra(source, graph, GraphAlgs.newQueue(graph), dist, pred);
+        heap = new IndexedDaryHeap(n);
+    }
+
+    /**
+     * Adds an edge to the graph (both ways if the graph is undirected) and
+     * updates the distances it shortens.
+     *
+     * @throws IllegalArgumentException if u or v doesn't exist in the graph
+     * @throws IllegalStateException if the weight is negative
+     * @param u the start of the edge
+     * @param v the end of the edge
+     * @param weight the weight of the edge
+     */
+    public void addEdge(int u, int v, int weight) {
+        checkEdge(u, v, weight);
+        append(u, v, weight);
+        if (!directed) {
+            append(v, u, weight);
+        }
+        update(u, v, weight);
+    }
+
+    /**
+     * Lowers the weight of an edge of the graph (both ways if the graph is
+     * undirected) and updates the distances it shortens. If there are
+     * parallel edges from u to v, the lightest one is changed.
+     *
+     * @throws IllegalArgumentException if u or v doesn't exist in the
+     *  graph, there is no edge from u to v, or the weight is greater than
+     *  the edge's current weight
+     * @throws IllegalStateException if the weight is negative
+     * @param u the start of the edge
+     * @param v the end of the edge
+     * @param weight the new weight of the edge
+     */
+    public void decreaseWeight(int u, int v, int weight) {
+        checkEdge(u, v, weight);
+        lower(u, v, weight);
+        if (!directed) {
+            lower(v, u, weight);
+        }
+        update(u, v, weight);
+    }
+
+    /**
+     * Checks the endpoints and weight of an edge.
+     *
+     * @throws IllegalArgumentException if u or v doesn't exist in the graph
+     * @throws IllegalStateException if the weight is negative
+     * @param u the start of the edge
+     * @param v the end of the edge
+     * @param weight the weight of the edge
+     */
+    private void checkEdge(int u, int v, int weight) {
+        if (u < 0 || u >= dist.length || v < 0 || v >= dist.length) {
+            throw new IllegalArgumentException("Edge endpoint is not in the graph");
+        }
+        if (weight < 0) {
+            throw new IllegalStateException("Edge cannot be negative");
+        }
+    }
+
+    /**
+     * Adds an edge to the edges added out of u.
+     *
+     * @param u the start of the edge
+     * @param v the end of the edge
+     * @param weight the weight of the edge
+     */
+    private void append(int u, int v, int weight) {
+        if (addedTargets[u] == null) {
+            addedTargets[u] = new int[2];
+            addedWeights[u] = new int[2];
+        } else if (addedCount[u] == addedTargets[u].length) {
+            addedTargets[u] = Arrays.copyOf(addedTargets[u], addedCount[u] * 2);
+            addedWeights[u] = Arrays.copyOf(addedWeights[u], addedCount[u] * 2);
+        }
+        addedTargets[u][addedCount[u]] = v;
+        addedWeights[u][addedCount[u]] = weight;
+        addedCount[u]++;
+    }
+
+    /**
+     * Sets the weight of the lightest edge from u to v, among the original
+     * and the added edges.
+     *
+     * @throws IllegalArgumentException if there is no edge from u to v, or
+     *  the weight is greater than the edge's current weight
+     * @param u the start of the edge
+     * @param v the end of the edge
+     * @param weight the new weight of the edge
+     */
+    private void lower(int u, int v, int weight) {
+        int[] array = null;
+        int index = -1;
+        for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+            if (targets[i] == v && (index < 0 || weights[i] < array[index])) {
+                array = weights;
+                index = i;
+            }
+        }
+        for (int k = 0; k < addedCount[u]; k++) {
+            if (addedTargets[u][k] == v
+                    && (index < 0 || addedWeights[u][k] < array[index])) {
+                array = addedWeights[u];
+                index = k;
+            }
+        }
+        if (index < 0) {
+            throw new IllegalArgumentException("No edge from " + u + " to " + v);
+        }
+        if (weight > array[index]) {
+            throw new IllegalArgumentException("Weight cannot be increased");
+        }
+        array[index] = weight;
+    }
+
+    /**
+     * Relaxes a changed edge (both ways if the graph is undirected) and
+     * runs Dijkstra's algorithm from every vertex whose distance went down,
+     * over the vertices whose distance keeps going down.
+     *
+     * @param u the start of the edge
+     * @param v the end of the edge
+     * @param weight the weight of the edge
+     */
+    private void update(int u, int v, int weight) {
+        lastChangedCount = 0;
+        relax(u, v, weight);
+        if (!directed) {
+            relax(v, u, weight);
+        }
+        while (!heap.isEmpty()) {
+            int len = heap.peekKey();
+            int x = heap.poll();
+            lastChangedCount++;
+            for (int i = offsets[x]; i < offsets[x + 1]; i++) {
+                relax(x, targets[i], len, weights[i]);
+            }
+            for (int k = 0; k < addedCount[x]; k++) {
+                relax(x, addedTargets[x][k], len, addedWeights[x][k]);
+            }
+        }
+    }
+
+    /**
+     * Lowers the distance of v if the edge from u makes it shorter.
+     *
+     * @param u the start of the edge
+     * @param v the end of the edge
+     * @param weight the weight of the edge
+     */
+    private void relax(int u, int v, int weight) {
+        if (dist[u] != Integer.MAX_VALUE) {
+            relax(u, v, dist[u], weight);
+        }
+    }
+
+    /**
+     * Lowers the distance of v if the edge from u makes it shorter, and
+     * queues v to pass the change on.
+     *
+     * @param u the start of the edge
+     * @param v the end of the edge
+     * @param du the distance of u
+     * @param weight the weight of the edge
+     */
+    private void relax(int u, int v, int du, int weight) {
+        int candidate = du + weight;
+        if (candidate < dist[v]) {
+            dist[v] = candidate;
+            pred[v] = u;
+            if (heap.contains(v)) {
+                heap.decreaseKey(v, candidate);
+            } else {
+                heap.insert(v, candidate);
+            }
+        }
+    }
+
+    /**
+     * Gets the vertex the distances are from.
+     *
+     * @return the source vertex
+     */
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the shortest distance from the source to a vertex.
+     *
+     * @param v the vertex
+     * @return the distance, or Integer.MAX_VALUE if v is unreachable
+     */
+    public int distanceTo(int v) {
+        return dist[v];
+    }
+
+    /**
+     * Gets the number of vertices whose distance the last update lowered.
+     *
+     * @return the number of vertices the last update changed
+     */
+    public int getLastChangedCount() {
+        return lastChangedCount;
+    }
+
+    /**
+     * Gets the distances and predecessors as a tree. The tree reads this
+     * object's arrays, so it follows later updates.
+     *
+     * @return a live view of the shortest path tree
+     */
+    public ShortestPathTree asTree() {
+        return new ShortestPathTree(source, dist, pred);
+    }
+
+    /**
+     * Gets the distances as a read only map in the format of
+     * {@link GraphAlgs#shortPathDijk(int, GraphAdjList)}. The map reads
+     * this object's array, so it follows later updates.
+     *
+     * @return a live view of the distances
+     */
+    public Map<Integer, Integer> asMap() {
+        return ShortestPathTree.distanceMap(dist);
+    }
+}
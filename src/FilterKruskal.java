@@ -0,0 +1,313 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Filter-Kruskal minimum spanning forest (Osipov, Sanders and Singler). Used
+ * by {@link GraphAlgs#mstFilterKruskal(CsrGraph, ForkJoinPool)}.
+ *
+ * The edges, packed as (weight, arc) longs, are split around a pivot the
+ * way quicksort does. The light half is handled first, recursively. Then
+ * every heavy edge whose endpoints the forest already connects is dropped,
+ * and only the heavy edges left are handled, recursively. Heavy edges that
+ * close cycles are never sorted, and once the forest connects every
+ * vertex nothing else is looked at. Small ranges are sorted and scanned as
+ * in Kruskal's algorithm.
+ *
+ * The split and the filter of large ranges run in parallel: every block of
+ * edges counts how many it keeps on the left, the counts are summed into
+ * offsets, and every block copies its edges into place in a buffer.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+final class FilterKruskal {
+
+    /**
+     * Ranges at most this long are sorted and scanned instead of split.
+     */
+    private static final int BASE_CASE = 1 << 12;
+
+    /**
+     * Ranges at least this long are split and filtered in parallel.
+     */
+    private static final int PARALLEL_MIN = 1 << 16;
+
+    /**
+     * The number of edges a block task counts and copies.
+     */
+    private static final int BLOCK = 1 << 14;
+
+    private final long[] edges;
+    private final long[] buffer;
+    private final int[] sources;
+    private final int[] targets;
+    private final IntDisjointSet components;
+    private final int[] forest;
+    private final ForkJoinPool pool;
+    private int forestCount;
+
+    /**
+     * Sets up a run over some packed edges.
+     *
+     * @param graph the graph the edges are arcs of
+     * @param edges the packed edges, reordered in place
+     * @param count the number of packed edges
+     * @param pool the pool to split and filter on
+     */
+    private FilterKruskal(CsrGraph graph, long[] edges, int count,
+                          ForkJoinPool pool) {
+        this.edges = edges;
+        this.pool = pool;
+        int n = graph.getVertexCount();
+        int[] offsets = graph.getOffsets();
+        targets = graph.getTargets();
+        sources = new int[targets.length];
+        for (int u = 0; u < n; u++) {
+            Arrays.fill(sources, offsets[u], offsets[u + 1], u);
+        }
+        components = new IntDisjointSet(n);
+        forest = new int[Math.max(0, n - 1)];
+        buffer = count >= PARALLEL_MIN ? new long[count] : null;
+    }
+
+    /**
+     * Finds a minimum spanning forest.
+     *
+     * @param graph the graph the edges are arcs of
+     * @param edges every edge once, packed as (weight, arc index), which
+     *        get reordered
+     * @param count the number of packed edges, from the start of edges
+     * @param pool the pool to split and filter on
+     * @return the arc indices of the forest's edges, lightest first
+     */
+    static int[] run(CsrGraph graph, long[] edges, int count,
+                     ForkJoinPool pool) {
+        FilterKruskal run = new FilterKruskal(graph, edges, count, pool);
+        run.filterKruskal(0, count);
+        return Arrays.copyOf(run.forest, run.forestCount);
+    }
+
+    /**
+     * Adds the edges of {@code [from, to)} that belong to the forest, with
+     * every lighter edge already handled.
+     *
+     * @param from the first index of the range
+     * @param to one past the last index of the range
+     */
+    private void filterKruskal(int from, int to) {
+        if (forestCount == forest.length || from >= to) {
+            return;
+        }
+        if (to - from <= BASE_CASE) {
+            kruskal(from, to);
+            return;
+        }
+        long pivot = medianOfThree(edges[from], edges[(from + to) >>> 1],
+                edges[to - 1]);
+        int mid = split(from, to, false, pivot);
+        filterKruskal(from, mid);
+        if (forestCount == forest.length) {
+            return;
+        }
+        filterKruskal(mid, split(mid, to, true, 0));
+    }
+
+    /**
+     * Sorts a range of edges and adds them to the forest in order, skipping
+     * the ones that would close a cycle.
+     *
+     * @param from the first index of the range
+     * @param to one past the last index of the range
+     */
+    private void kruskal(int from, int to) {
+        Arrays.sort(edges, from, to);
+        for (int k = from; k < to && forestCount < forest.length; k++) {
+            int arc = (int) edges[k];
+            if (components.union(sources[arc], targets[arc])) {
+                forest[forestCount++] = arc;
+            }
+        }
+    }
+
+    /**
+     * Moves the edges of a range that pass a test to its front.
+     *
+     * @param from the first index of the range
+     * @param to one past the last index of the range
+     * @param filter true to keep edges whose endpoints are not connected
+     *        yet, false to keep edges at most pivot
+     * @param pivot the pivot when filter is false
+     * @return one past the index of the last edge kept
+     */
+    private int split(int from, int to, boolean filter, long pivot) {
+        if (to - from >= PARALLEL_MIN) {
+            return parallelSplit(from, to, filter, pivot);
+        }
+        if (filter) {
+            int kept = from;
+            for (int k = from; k < to; k++) {
+                if (keep(edges[k], true, 0)) {
+                    edges[kept++] = edges[k];
+                }
+            }
+            return kept;
+        }
+        int i = from;
+        int j = to - 1;
+        while (true) {
+            while (i <= j && edges[i] <= pivot) {
+                i++;
+            }
+            while (i <= j && edges[j] > pivot) {
+                j--;
+            }
+            if (i >= j) {
+                return i;
+            }
+            long swap = edges[i];
+            edges[i] = edges[j];
+            edges[j] = swap;
+        }
+    }
+
+    /**
+     * Moves the edges of a range that pass a test to its front in
+     * parallel, keeping the order of both parts.
+     *
+     * @param from the first index of the range
+     * @param to one past the last index of the range
+     * @param filter true to keep edges whose endpoints are not connected
+     *        yet, false to keep edges at most pivot
+     * @param pivot the pivot when filter is false
+     * @return one past the index of the last edge kept
+     */
+    private int parallelSplit(int from, int to, boolean filter, long pivot) {
+        int blocks = (to - from + BLOCK - 1) / BLOCK;
+        int[] kept = new int[blocks];
+        pool.invoke(new BlockTask(from, to, 0, blocks, filter, pivot, kept, null));
+        int[] starts = new int[blocks];
+        int left = from;
+        for (int b = 0; b < blocks; b++) {
+            starts[b] = left;
+            left += kept[b];
+        }
+        int right = left;
+        int[] rightStarts = new int[blocks];
+        for (int b = 0; b < blocks; b++) {
+            rightStarts[b] = right;
+            right += Math.min(BLOCK, to - from - b * BLOCK) - kept[b];
+        }
+        pool.invoke(new BlockTask(from, to, 0, blocks, filter, pivot, starts,
+                rightStarts));
+        int length = filter ? left - from : to - from;
+        System.arraycopy(buffer, from, edges, from, length);
+        return left;
+    }
+
+    /**
+     * Tests whether an edge goes to the front of a split.
+     *
+     * @param edge the packed edge
+     * @param filter true to test that its endpoints are not connected yet,
+     *        false to test that it is at most pivot
+     * @param pivot the pivot when filter is false
+     * @return true if the edge is kept
+     */
+    private boolean keep(long edge, boolean filter, long pivot) {
+        if (!filter) {
+            return edge <= pivot;
+        }
+        int arc = (int) edge;
+        return components.root(sources[arc]) != components.root(targets[arc]);
+    }
+
+    /**
+     * Gets the middle one of three distinct longs.
+     *
+     * @param a the first long
+     * @param b the second long
+     * @param c the third long
+     * @return the median of a, b and c
+     */
+    private static long medianOfThree(long a, long b, long c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    /**
+     * Counts (first pass) or copies into the buffer (second pass) the
+     * edges of the blocks {@code [firstBlock, lastBlock)}, splitting in half
+     * until a single block is left.
+     */
+    private final class BlockTask extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final int firstBlock;
+        private final int lastBlock;
+        private final boolean filter;
+        private final long pivot;
+        private final int[] starts;
+        private final int[] rightStarts;
+
+        /**
+         * Creates a task for a range of blocks.
+         *
+         * @param from the first index of the whole range
+         * @param to one past the last index of the whole range
+         * @param firstBlock the first block of this task
+         * @param lastBlock one past the last block of this task
+         * @param filter the test to split by, as in split
+         * @param pivot the pivot when filter is false
+         * @param starts in the first pass, where to store the number of
+         *        edges kept per block; in the second, where every block's
+         *        kept edges go
+         * @param rightStarts null in the first pass; in the second, where
+         *        every block's other edges go
+         */
+        BlockTask(int from, int to, int firstBlock, int lastBlock,
+                  boolean filter, long pivot, int[] starts, int[] rightStarts) {
+            this.from = from;
+            this.to = to;
+            this.firstBlock = firstBlock;
+            this.lastBlock = lastBlock;
+            this.filter = filter;
+            this.pivot = pivot;
+            this.starts = starts;
+            this.rightStarts = rightStarts;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastBlock - firstBlock > 1) {
+                int mid = (firstBlock + lastBlock) >>> 1;
+                invokeAll(new BlockTask(from, to, firstBlock, mid, filter, pivot,
+                                starts, rightStarts),
+                        new BlockTask(from, to, mid, lastBlock, filter, pivot,
+                                starts, rightStarts));
+                return;
+            }
+            int begin = from + firstBlock * BLOCK;
+            int end = Math.min(to, begin + BLOCK);
+            if (rightStarts == null) {
+                int count = 0;
+                for (int k = begin; k < end; k++) {
+                    if (keep(edges[k], filter, pivot)) {
+                        count++;
+                    }
+                }
+                starts[firstBlock] = count;
+                return;
+            }
+            int left = starts[firstBlock];
+            int right = rightStarts[firstBlock];
+            for (int k = begin; k < end; k++) {
+                if (keep(edges[k], filter, pivot)) {
+                    buffer[left++] = edges[k];
+                } else if (!filter) {
+                    buffer[right++] = edges[k];
+                }
+            }
+        }
+    }
+}
@@ -1,3 +1,4 @@
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -7,7 +8,16 @@ import java.util.Set;
  * A class representing a graph, with an edge list and adjacency list.
  * Related classes include Edge, Vertex, and VertexDistancePair.
  *
- * DO NOT EDIT THIS CLASS!!
+ * The graph can be changed after it is built with addVertex, addEdge and
+ * removeEdge, each in O(1) amortized time. Changes go to the edge set
+ * passed to the constructor too, which is never copied, and the mirror
+ * entry of an undirected edge is always added and removed with it. Every
+ * change bumps a version number, so caches and indexes built from the
+ * graph (see {@link ShortestPathCache#get(GraphAdjList, int)}) can tell
+ * when they are stale. Changing the edge set or the adjacency lists
+ * directly bypasses all of this.
+ *
+ * This class is not thread safe.
  *
  * @author CS 1332 TAs
  * @version 1.0
@@ -17,6 +27,19 @@ public class GraphAdjList {
     private Set<Edge> edges;
     private Map<Integer, List<VertexDistancePair>> adjacencyList;
     private boolean directed;
+    private long version;
+
+    /**
+     * Where every edge's entries are in the adjacency lists, built on the
+     * first removeEdge so that graphs that only grow never pay for it.
+     */
+    private Map<Edge, Slot> slots;
+
+    /**
+     * The slot of the edge behind every entry of every adjacency list, in
+     * the same order as the lists, while slots is built.
+     */
+    private Map<Integer, List<Slot>> owners;
 
     /**
      * Constructor to build a Graph from a set of edges.
@@ -62,11 +85,247 @@ public class GraphAdjList {
     }
 
     /**
-     * Gets whether or not the edges of this graph are directed.
+     * Gets whether or not the edges of this graph are directed. This stays
+     * true once a directed edge was added, even if it is removed again.
      *
      * @return true if this graph is directed, false otherwise
      */
     public boolean isDirected() {
         return directed;
     }
+
+    /**
+     * Gets the version of this graph, which starts at 0 and goes up by one
+     * with every change made through addVertex, addEdge or removeEdge.
+     *
+     * @return the modification version of this graph
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Adds a vertex with no edges, if it is not in the graph yet.
+     *
+     * @param v the vertex to add
+     * @return true if the vertex was added, false if it was already there
+     */
+    public boolean addVertex(int v) {
+        if (adjacencyList.containsKey(v)) {
+            return false;
+        }
+        adjacencyList.put(v, new ArrayList<>());
+        if (owners != null) {
+            owners.put(v, new ArrayList<>());
+        }
+        version++;
+        return true;
+    }
+
+    /**
+     * Adds an edge, and its mirror entry if it is undirected, if it is not
+     * in the graph yet.
+     *
+     * @throws IllegalArgumentException if the edge is null, or an end of it
+     *  is not in the graph
+     * @throws UnsupportedOperationException if the edge set passed to the
+     *  constructor cannot be changed
+     * @param e the edge to add
+     * @return true if the edge was added, false if it was already there
+     */
+    public boolean addEdge(Edge e) {
+        if (e == null || !adjacencyList.containsKey(e.getU())
+                || !adjacencyList.containsKey(e.getV())) {
+            throw new IllegalArgumentException("Edge is null or not between vertices of the graph");
+        }
+        if (!edges.add(e)) {
+            return false;
+        }
+        Slot slot = new Slot(e);
+        slot.first = append(e.getU(), new VertexDistancePair(e.getV(), e.getWeight()), slot);
+        if (!e.isDirected()) {
+            slot.second = append(e.getV(), new VertexDistancePair(e.getU(), e.getWeight()), slot);
+        } else {
+            directed = true;
+        }
+        if (slots != null) {
+            slots.put(e, slot);
+        }
+        version++;
+        return true;
+    }
+
+    /**
+     * Removes an edge, and its mirror entry if it is undirected. The last
+     * entry of an adjacency list takes the place of a removed one, so the
+     * order of the lists changes.
+     *
+     * @throws IllegalArgumentException if the edge is null
+     * @throws IllegalStateException if the edge set and the adjacency lists
+     *  were changed directly and no longer agree
+     * @throws UnsupportedOperationException if the edge set passed to the
+     *  constructor cannot be changed
+     * @param e the edge to remove
+     * @return true if the edge was removed, false if it was not there
+     */
+    public boolean removeEdge(Edge e) {
+        if (e == null) {
+            throw new IllegalArgumentException("Edge cannot be null.");
+        }
+        if (!edges.contains(e)) {
+            return false;
+        }
+        if (slots == null) {
+            buildSlots();
+        }
+        Slot slot = slots.get(e);
+        if (slot == null) {
+            throw new IllegalStateException("Edge set and adjacency list disagree");
+        }
+        edges.remove(e);
+        slots.remove(e);
+        Edge stored = slot.edge;
+        if (stored.isDirected()) {
+            swapRemove(stored.getU(), slot.first);
+        } else if (stored.getU() == stored.getV()) {
+            swapRemove(stored.getU(), Math.max(slot.first, slot.second));
+            swapRemove(stored.getU(), Math.min(slot.first, slot.second));
+        } else {
+            swapRemove(stored.getU(), slot.first);
+            swapRemove(stored.getV(), slot.second);
+        }
+        version++;
+        return true;
+    }
+
+    /**
+     * Appends an entry to the adjacency list of a vertex.
+     *
+     * @param v the vertex
+     * @param pair the entry
+     * @param slot the slot of the entry's edge
+     * @return the index of the entry in the list
+     */
+    private int append(int v, VertexDistancePair pair, Slot slot) {
+        List<VertexDistancePair> list = adjacencyList.get(v);
+        list.add(pair);
+        if (owners != null) {
+            owners.get(v).add(slot);
+        }
+        return list.size() - 1;
+    }
+
+    /**
+     * Removes an entry from the adjacency list of a vertex by moving the
+     * last entry into its place.
+     *
+     * @param v the vertex
+     * @param index the index of the entry to remove
+     */
+    private void swapRemove(int v, int index) {
+        List<VertexDistancePair> list = adjacencyList.get(v);
+        List<Slot> owner = owners.get(v);
+        int last = list.size() - 1;
+        if (index != last) {
+            list.set(index, list.get(last));
+            Slot moved = owner.get(last);
+            owner.set(index, moved);
+            if (moved.edge.getU() == v && moved.first == last) {
+                moved.first = index;
+            } else {
+                moved.second = index;
+            }
+        }
+        list.remove(last);
+        owner.remove(last);
+    }
+
+    /**
+     * Finds the entries of every edge in the adjacency lists. Entries with
+     * the same vertex and distance in the same list can't be told apart,
+     * and it doesn't matter which of them goes to which edge.
+     *
+     * @throws IllegalStateException if the edge set and the adjacency lists
+     *  were changed directly and no longer agree
+     */
+    private void buildSlots() {
+        Map<Integer, Map<Long, ArrayDeque<Integer>>> free = new HashMap<>();
+        owners = new HashMap<>();
+        for (Map.Entry<Integer, List<VertexDistancePair>> entry : adjacencyList.entrySet()) {
+            Map<Long, ArrayDeque<Integer>> byPair = new HashMap<>();
+            List<VertexDistancePair> list = entry.getValue();
+            List<Slot> owner = new ArrayList<>(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                byPair.computeIfAbsent(key(list.get(i).getVertex(), list.get(i).getDistance()),
+                    k -> new ArrayDeque<>()).add(i);
+                owner.add(null);
+            }
+            free.put(entry.getKey(), byPair);
+            owners.put(entry.getKey(), owner);
+        }
+        slots = new HashMap<>();
+        for (Edge e : edges) {
+            Slot slot = new Slot(e);
+            slot.first = claim(free, e.getU(), e.getV(), e.getWeight(), slot);
+            if (!e.isDirected()) {
+                slot.second = claim(free, e.getV(), e.getU(), e.getWeight(), slot);
+            }
+            slots.put(e, slot);
+        }
+    }
+
+    /**
+     * Takes an unclaimed entry for an edge while building the slots.
+     *
+     * @throws IllegalStateException if there is no such entry
+     * @param free the unclaimed entries of every vertex by vertex and
+     *        distance
+     * @param u the vertex whose list the entry is in
+     * @param v the vertex of the entry
+     * @param weight the distance of the entry
+     * @param slot the slot of the edge
+     * @return the index of the entry
+     */
+    private int claim(Map<Integer, Map<Long, ArrayDeque<Integer>>> free, int u,
+                      int v, int weight, Slot slot) {
+        Map<Long, ArrayDeque<Integer>> byPair = free.get(u);
+        ArrayDeque<Integer> indices = byPair == null ? null : byPair.get(key(v, weight));
+        if (indices == null || indices.isEmpty()) {
+            throw new IllegalStateException("Edge set and adjacency list disagree");
+        }
+        int index = indices.poll();
+        owners.get(u).set(index, slot);
+        return index;
+    }
+
+    /**
+     * Packs the vertex and distance of an entry into a long.
+     *
+     * @param vertex the vertex of the entry
+     * @param distance the distance of the entry
+     * @return the key of the entry
+     */
+    private static long key(int vertex, int distance) {
+        return ((long) vertex << 32) | (distance & 0xFFFFFFFFL);
+    }
+
+    /**
+     * An edge and the indices of its entries in the adjacency lists of its
+     * ends.
+     */
+    private static final class Slot {
+
+        private final Edge edge;
+        private int first;
+        private int second;
+
+        /**
+         * Creates a slot for an edge.
+         *
+         * @param edge the edge as stored in the edge set
+         */
+        Slot(Edge edge) {
+            this.edge = edge;
+        }
+    }
 }
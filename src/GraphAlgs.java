@@ -1,13 +1,33 @@
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * Your implementation of 5 different graph algorithms.
+ * Your implementation of 5 different graph algorithms, along with versions
+ * of them that run on a graph in CSR format (see CsrGraph).
  *
  * @author Hao Zhang
  * @version 1.0
  */
 public class GraphAlgs {
 
+    /**
+     * Direction optimizing bfs switches from top-down to bottom-up once the
+     * edges out of the frontier exceed 1 / ALPHA of the unexplored edges.
+     */
+    private static final int ALPHA = 14;
+
+    /**
+     * Direction optimizing bfs switches from bottom-up back to top-down once
+     * the frontier holds fewer than 1 / BETA of the vertices.
+     */
+    private static final int BETA = 24;
+
+    /**
+     * Dijkstra's algorithm uses a bucket queue instead of a heap when every
+     * edge weight is between 0 and this.
+     */
+    private static final int BUCKET_MAX_WEIGHT = 4096;
+
     /**
      * Performs a breadth first search (bfs) on the input graph, starting at
      * int {@code start} which represents the starting vertex. You will be
@@ -62,6 +82,238 @@ public class GraphAlgs {
         return graph.getAdjacencyList().size() == bfsList.size();
     }
 
+    /**
+     * Performs a breadth first search (bfs) on a graph in CSR format. This
+     * visits vertices in the same order as
+     * {@link #breadthFirstSearch(int, GraphAdjList, List)} does on the
+     * GraphAdjList the CsrGraph was built from, but tracks visited vertices
+     * and the queue in primitive arrays instead of boxed collections.
+     *
+     * @throws IllegalArgumentException if start is less than 0 or if any input
+     *  is null, or if {@code start} doesn't exist in the graph
+     * @param start the vertex to begin the bfs on
+     * @param graph the graph in CSR format to search
+     * @param bfsList an empty list initially, this is the list that the
+     * vertices are added to in order of traversal
+     * @return true if the graph is connected (you were able to reach every
+     * vertex and edge from {@code start}), false otherwise
+     */
+    public static boolean breadthFirstSearch(int start, CsrGraph graph,
+                                             List<Integer> bfsList) {
+        if (graph == null || bfsList == null) {
+            throw new IllegalArgumentException("Input is null or start is not in the graph");
+        }
+        BfsWorkspace workspace = new BfsWorkspace(graph.getVertexCount());
+        boolean connected = breadthFirstSearch(start, graph, workspace);
+        int[] order = workspace.getOrder();
+        for (int i = 0; i < workspace.getVisitedCount(); i++) {
+            bfsList.add(order[i]);
+        }
+        return connected;
+    }
+
+    /**
+     * Performs a breadth first search (bfs) on a graph in CSR format using
+     * the arrays of a reusable workspace. Afterwards the workspace holds the
+     * vertices in the same order that
+     * {@link #breadthFirstSearch(int, CsrGraph, List)} would add them to its
+     * list.
+     *
+     * As long as the workspace already has room for the graph, this method
+     * does not allocate anything.
+     *
+     * @throws IllegalArgumentException if start is less than 0 or if any input
+     *  is null, or if {@code start} doesn't exist in the graph
+     * @param start the vertex to begin the bfs on
+     * @param graph the graph in CSR format to search
+     * @param workspace the workspace to search with and store the order in
+     * @return true if the graph is connected (you were able to reach every
+     * vertex and edge from {@code start}), false otherwise
+     */
+    public static boolean breadthFirstSearch(int start, CsrGraph graph,
+                                             BfsWorkspace workspace) {
+        if (graph == null || workspace == null || start < 0
+                || start >= graph.getVertexCount()) {
+            throw new IllegalArgumentException("Input is null or start is not in the graph");
+        }
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        workspace.reset(graph.getVertexCount());
+        workspace.visit(start);
+        workspace.enqueue(start);
+        while (!workspace.isQueueEmpty()) {
+            int elem = workspace.dequeue();
+            for (int i = offsets[elem]; i < offsets[elem + 1]; i++) {
+                int next = targets[i];
+                if (workspace.visit(next)) {
+                    workspace.enqueue(next);
+                }
+            }
+        }
+        return workspace.getVisitedCount() == graph.getVertexCount();
+    }
+
+    /**
+     * Performs a direction optimizing breadth first search on a graph in
+     * adjacency list format. See
+     * {@link #directionOptimizingBfs(int, CsrGraph)}; the graph is converted
+     * to CSR format first, so its vertices must be numbered 0 to n - 1.
+     *
+     * @throws IllegalArgumentException if start is less than 0 or if any input
+     *  is null, or if {@code start} doesn't exist in the graph
+     * @param start the vertex to begin the bfs on
+     * @param graph the graph in an adjacency list format to search
+     * @return the level and parent of every vertex reached from start
+     */
+    public static BfsTree directionOptimizingBfs(int start, GraphAdjList graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Input is null or start is not in the graph");
+        }
+        return directionOptimizingBfs(start, new CsrGraph(graph));
+    }
+
+    /**
+     * Performs a direction optimizing breadth first search on a graph in CSR
+     * format. Each level is expanded either top-down, by scanning the edges
+     * out of every frontier vertex like breadthFirstSearch does, or
+     * bottom-up, by having every unvisited vertex scan the edges into it
+     * until it finds one from the frontier. Bottom-up is used while the
+     * edges out of the frontier are a large share of the unexplored edges,
+     * which is the case for the middle levels of low diameter graphs. For
+     * directed graphs the bottom-up steps use {@link CsrGraph#reverse()}.
+     *
+     * Every vertex gets the same level and reachability as with
+     * breadthFirstSearch. A vertex found bottom-up may get a different
+     * parent (any frontier vertex with an edge to it), and the vertices of a
+     * level found bottom-up are ordered by vertex number.
+     *
+     * @throws IllegalArgumentException if start is less than 0 or if any input
+     *  is null, or if {@code start} doesn't exist in the graph
+     * @param start the vertex to begin the bfs on
+     * @param graph the graph in CSR format to search
+     * @return the level and parent of every vertex reached from start
+     */
+    public static BfsTree directionOptimizingBfs(int start, CsrGraph graph) {
+        if (graph == null || start < 0 || start >= graph.getVertexCount()) {
+            throw new IllegalArgumentException("Input is null or start is not in the graph");
+        }
+        int n = graph.getVertexCount();
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        CsrGraph reverse = graph.reverse();
+        int[] revOffsets = reverse.getOffsets();
+        int[] revTargets = reverse.getTargets();
+        int[] level = new int[n];
+        int[] parent = new int[n];
+        int[] order = new int[n];
+        long[] frontier = new long[(n + 63) >>> 6];
+        Arrays.fill(level, -1);
+        Arrays.fill(parent, -1);
+        level[start] = 0;
+        order[0] = start;
+        int levelStart = 0;
+        int levelEnd = 1;
+        long frontierEdges = graph.degree(start);
+        long unexploredEdges = graph.getArcCount() - frontierEdges;
+        boolean topDown = true;
+        int depth = 0;
+        while (levelStart < levelEnd) {
+            if (topDown && frontierEdges > unexploredEdges / ALPHA) {
+                topDown = false;
+            } else if (!topDown && levelEnd - levelStart < n / BETA) {
+                topDown = true;
+            }
+            int tail = levelEnd;
+            if (topDown) {
+                for (int k = levelStart; k < levelEnd; k++) {
+                    int u = order[k];
+                    for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                        int v = targets[i];
+                        if (level[v] < 0) {
+                            level[v] = depth + 1;
+                            parent[v] = u;
+                            order[tail++] = v;
+                        }
+                    }
+                }
+            } else {
+                Arrays.fill(frontier, 0L);
+                for (int k = levelStart; k < levelEnd; k++) {
+                    frontier[order[k] >>> 6] |= 1L << order[k];
+                }
+                for (int v = 0; v < n; v++) {
+                    if (level[v] >= 0) {
+                        continue;
+                    }
+                    for (int i = revOffsets[v]; i < revOffsets[v + 1]; i++) {
+                        int u = revTargets[i];
+                        if ((frontier[u >>> 6] & (1L << u)) != 0) {
+                            level[v] = depth + 1;
+                            parent[v] = u;
+                            order[tail++] = v;
+                            break;
+                        }
+                    }
+                }
+            }
+            frontierEdges = 0;
+            for (int k = levelEnd; k < tail; k++) {
+                frontierEdges += graph.degree(order[k]);
+            }
+            unexploredEdges -= frontierEdges;
+            levelStart = levelEnd;
+            levelEnd = tail;
+            depth++;
+        }
+        return new BfsTree(start, level, parent, order, levelEnd);
+    }
+
+    /**
+     * Performs a level synchronous breadth first search on a graph in CSR
+     * format using the common ForkJoinPool. See
+     * {@link #parallelBreadthFirstSearch(int, CsrGraph, ForkJoinPool, boolean)}.
+     *
+     * @throws IllegalArgumentException if start is less than 0 or if any input
+     *  is null, or if {@code start} doesn't exist in the graph
+     * @param start the vertex to begin the bfs on
+     * @param graph the graph in CSR format to search
+     * @return the level and parent of every vertex reached from start
+     */
+    public static BfsTree parallelBreadthFirstSearch(int start, CsrGraph graph) {
+        return parallelBreadthFirstSearch(start, graph, ForkJoinPool.commonPool(),
+                false);
+    }
+
+    /**
+     * Performs a level synchronous breadth first search on a graph in CSR
+     * format, expanding every frontier level in parallel on {@code pool}.
+     * Workers claim vertices in an atomic visited bitmap and collect them in
+     * their own next frontier buffers.
+     *
+     * Levels and reachability always match breadthFirstSearch. The order
+     * within a level and the parent of each vertex depend on thread timing,
+     * unless {@code deterministic} is true: then the tree's order is exactly
+     * the list breadthFirstSearch builds, at the cost of a second pass over
+     * the frontier's edges per level.
+     *
+     * @throws IllegalArgumentException if start is less than 0 or if any input
+     *  is null, or if {@code start} doesn't exist in the graph
+     * @param start the vertex to begin the bfs on
+     * @param graph the graph in CSR format to search
+     * @param pool the pool to run the search on
+     * @param deterministic whether or not to reproduce the sequential order
+     * @return the level and parent of every vertex reached from start
+     */
+    public static BfsTree parallelBreadthFirstSearch(int start, CsrGraph graph,
+                                                     ForkJoinPool pool,
+                                                     boolean deterministic) {
+        if (graph == null || pool == null || start < 0
+                || start >= graph.getVertexCount()) {
+            throw new IllegalArgumentException("Input is null or start is not in the graph");
+        }
+        return ParallelBfs.search(start, graph, pool, deterministic);
+    }
+
     /**
      * Performs a depth first search (dfs) on the input graph, starting at
      * int {@code start} which represents the starting vertex.  You will be
@@ -76,7 +328,11 @@ public class GraphAlgs {
      * with vertex at index 0 to vertex  at index v-1. Failure to do so may
      * cause you to lose points.
      *
-     * *NOTE* You MUST implement this method recursively.
+     * The search keeps its own stack instead of recursing, so it can handle
+     * graphs whose dfs tree is tens of thousands of vertices deep. Rows of
+     * the matrix are packed into longs, one bit per column, when the search
+     * first reaches their vertex, and each step finds the next unvisited
+     * neighbor 64 columns at a time.
      *
      * You may import/use {@code java.util.Set}, {@code java.util.Map},
      * {@code java.util.List}, and any classes that implement the
@@ -100,21 +356,111 @@ public class GraphAlgs {
         if (graph == null || dfsList == null || start < 0) {
             throw new IllegalArgumentException("Input is null or start is less than zero");
         }
-        int[][] matrix = graph.getAdjMatrix();
-        Map<Integer, Integer> visited = new HashMap<>();
-        dfs(start, matrix, dfsList, visited);
+        BitAdjMatrix matrix = BitAdjMatrix.packOnDemand(graph);
+        if (start >= matrix.size()) {
+            throw new IllegalArgumentException("Start is not in the graph");
+        }
+        dfs(start, matrix, dfsList);
         return dfsList.size() == graph.getVertexList().size();
     }
 
-    private static void dfs(int start, int[][] matrix, List<Integer> dfsList,
-                            Map<Integer, Integer> visited) {
+    /**
+     * Performs a depth first search (dfs) on a graph stored as a
+     * BitAdjMatrix, visiting neighbors from column 0 to column v-1 like
+     * {@link #depthFirstSearch(int, GraphAdjMatrix, List)}.
+     *
+     * @throws IllegalArgumentException if start is less than 0 or if any input
+     *  is null, or if {@code start} doesn't exist in the graph
+     * @param start the vertex to begin the dfs on
+     * @param graph the graph as a bit packed adjacency matrix
+     * @param dfsList the list of visited vertices in order. This list will be
+     * empty initially and is added to as the dfs runs.
+     * @return true if the graph is connected (you were able to reach every
+     * vertex and edge from {@code start}), false otherwise
+     */
+    public static boolean depthFirstSearch(int start, BitAdjMatrix graph,
+                                           List<Integer> dfsList) {
+        if (graph == null || dfsList == null || start < 0
+                || start >= graph.size()) {
+            throw new IllegalArgumentException("Input is null or start is not in the graph");
+        }
+        dfs(start, graph, dfsList);
+        return dfsList.size() == graph.size();
+    }
+
+    /**
+     * Runs an iterative dfs over a bit packed adjacency matrix. The stack
+     * holds, for every vertex on the current path, the column to resume
+     * scanning its row from, which visits vertices in the same order as
+     * scanning rows from column 0 recursively.
+     *
+     * @param start the vertex to begin the dfs on
+     * @param matrix the graph to search
+     * @param dfsList the list to add the vertices to in visited order
+     */
+    private static void dfs(int start, BitAdjMatrix matrix,
+                            List<Integer> dfsList) {
+        long[] visited = new long[matrix.getWordsPerRow()];
+        int[] stack = new int[matrix.size()];
+        int[] resume = new int[matrix.size()];
+        int depth = 0;
+        visited[start >>> 6] |= 1L << start;
         dfsList.add(start);
-        visited.put(start, 0);
-        for (int i = 0; i < matrix[start].length; i++) {
-            if (matrix[start][i] != 0 && !visited.containsKey(i)) {
-                dfs(i, matrix, dfsList, visited);
+        stack[depth++] = start;
+        while (depth > 0) {
+            int next = matrix.nextNeighbor(stack[depth - 1], resume[depth - 1],
+                    visited);
+            if (next < 0) {
+                depth--;
+            } else {
+                resume[depth - 1] = next + 1;
+                visited[next >>> 6] |= 1L << next;
+                dfsList.add(next);
+                stack[depth] = next;
+                resume[depth] = 0;
+                depth++;
+            }
+        }
+    }
+
+    /**
+     * Performs a breadth first search (bfs) on a graph stored as a
+     * BitAdjMatrix. The neighbors of each vertex are visited from column 0
+     * to column v-1, and each step skips visited and missing columns 64 at
+     * a time.
+     *
+     * @throws IllegalArgumentException if start is less than 0 or if any input
+     *  is null, or if {@code start} doesn't exist in the graph
+     * @param start the vertex to begin the bfs on
+     * @param graph the graph as a bit packed adjacency matrix
+     * @param bfsList an empty list initially, this is the list that the
+     * vertices are added to in order of traversal
+     * @return true if the graph is connected (you were able to reach every
+     * vertex and edge from {@code start}), false otherwise
+     */
+    public static boolean breadthFirstSearch(int start, BitAdjMatrix graph,
+                                             List<Integer> bfsList) {
+        if (graph == null || bfsList == null || start < 0
+                || start >= graph.size()) {
+            throw new IllegalArgumentException("Input is null or start is not in the graph");
+        }
+        long[] visited = new long[graph.getWordsPerRow()];
+        int[] queue = new int[graph.size()];
+        int head = 0;
+        int tail = 0;
+        visited[start >>> 6] |= 1L << start;
+        queue[tail++] = start;
+        while (head < tail) {
+            int elem = queue[head++];
+            int next = graph.nextNeighbor(elem, 0, visited);
+            while (next >= 0) {
+                visited[next >>> 6] |= 1L << next;
+                queue[tail++] = next;
+                next = graph.nextNeighbor(elem, next + 1, visited);
             }
+            bfsList.add(elem);
         }
+        return tail == graph.size();
     }
 
     /**
@@ -180,6 +526,515 @@ public class GraphAlgs {
         return path;
     }
 
+    /**
+     * Runs Dijkstra's shortest path algorithm on a graph in CSR format. See
+     * {@link #shortPathDijk(int, CsrGraph, int)}.
+     *
+     * If every edge weight is a small non-negative int (at most 4096), the
+     * search runs on a {@link BucketQueue} (Dial's algorithm) instead of a
+     * heap, which takes near linear time. Otherwise it uses a 4-ary
+     * {@link IndexedDaryHeap}.
+     *
+     * The map is a read only view of the int array the search fills (see
+     * {@link ShortestPathTree#asMap()}), so nothing is boxed until a
+     * distance is read. Use {@link #shortPathTree(int, CsrGraph)} to get
+     * the predecessors as well.
+     *
+     * @throws IllegalArgumentException if start is less 0 or if any input
+     *  is null, or if start doesn't exist in the graph.
+     * @throws IllegalStateException if any of the edges are negative
+     * @param start the vertex to start at (source)
+     * @param graph the Graph we are searching in CSR format
+     * @return a map of the shortest distances from start to every other node
+     *         in the graph, with Integer.MAX_VALUE for unreachable nodes
+     */
+    public static Map<Integer, Integer> shortPathDijk(int start,
+                                                      CsrGraph graph) {
+        if (graph == null || start < 0 || start >= graph.getVertexCount()) {
+            throw new IllegalArgumentException("Input is null or start is not in the graph");
+        }
+        int[] dist = new int[graph.getVertexCount()];
+        dijkstra(start, graph, newQueue(graph), dist, null);
+        return ShortestPathTree.distanceMap(dist);
+    }
+
+    /**
+     * Runs Dijkstra's shortest path algorithm on a graph in adjacency list
+     * format and keeps the shortest path tree. See
+     * {@link #shortPathTree(int, CsrGraph)}; the graph is converted to CSR
+     * format first, so its vertices must be numbered 0 to n - 1.
+     *
+     * @throws IllegalArgumentException if start is less 0 or if any input
+     *  is null, or if start doesn't exist in the graph.
+     * @throws IllegalStateException if any of the edges are negative
+     * @param start the vertex to start at (source)
+     * @param graph the Graph we are searching using an adjacency list
+     * @return the distance to and predecessor of every vertex
+     */
+    public static ShortestPathTree shortPathTree(int start, GraphAdjList graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null.");
+        }
+        return shortPathTree(start, new CsrGraph(graph));
+    }
+
+    /**
+     * Runs Dijkstra's shortest path algorithm on a graph in CSR format, on
+     * the same queue as {@link #shortPathDijk(int, CsrGraph)}, and records
+     * the vertex every vertex was last reached from. The result holds the
+     * distances and predecessors in two int arrays, and rebuilds the
+     * shortest path to any vertex in time proportional to its length.
+     *
+     * @throws IllegalArgumentException if start is less 0 or if any input
+     *  is null, or if start doesn't exist in the graph.
+     * @throws IllegalStateException if any of the edges are negative
+     * @param start the vertex to start at (source)
+     * @param graph the Graph we are searching in CSR format
+     * @return the distance to and predecessor of every vertex
+     */
+    public static ShortestPathTree shortPathTree(int start, CsrGraph graph) {
+        if (graph == null || start < 0 || start >= graph.getVertexCount()) {
+            throw new IllegalArgumentException("Input is null or start is not in the graph");
+        }
+        int[] dist = new int[graph.getVertexCount()];
+        int[] pred = new int[dist.length];
+        dijkstra(start, graph, newQueue(graph), dist, pred);
+        return new ShortestPathTree(start, dist, pred);
+    }
+
+    /**
+     * Runs Dijkstra's shortest path algorithm from every vertex of
+     * {@code sources} on the common ForkJoinPool. See
+     * {@link #shortPathDijkBatch(int[], CsrGraph, ShortestPathCallback, ForkJoinPool)}.
+     *
+     * @throws IllegalArgumentException if any input is null, or if a source
+     *  doesn't exist in the graph
+     * @throws IllegalStateException if any of the edges are negative
+     * @param sources the vertices to start at
+     * @param graph the Graph we are searching in CSR format
+     * @param callback the receiver of the result of every source
+     */
+    public static void shortPathDijkBatch(int[] sources, CsrGraph graph,
+                                          ShortestPathCallback callback) {
+        shortPathDijkBatch(sources, graph, callback, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs Dijkstra's shortest path algorithm from every vertex of
+     * {@code sources}, spread over the worker threads of {@code pool}, and
+     * hands the result of each source to {@code callback} as soon as it is
+     * done. Results are not kept, so memory stays at one workspace per
+     * worker thread however many sources there are. Each result is the
+     * same as {@link #shortPathTree(int, CsrGraph)} would return, but the
+     * order sources finish in is not defined.
+     *
+     * Sources are independent, so throughput grows with the number of
+     * workers until memory bandwidth runs out.
+     *
+     * @throws IllegalArgumentException if any input is null, or if a source
+     *  doesn't exist in the graph
+     * @throws IllegalStateException if any of the edges are negative
+     * @param sources the vertices to start at
+     * @param graph the Graph we are searching in CSR format
+     * @param callback the receiver of the result of every source, called
+     *        from the worker threads
+     * @param pool the pool to run the searches on
+     */
+    public static void shortPathDijkBatch(int[] sources, CsrGraph graph,
+                                          ShortestPathCallback callback,
+                                          ForkJoinPool pool) {
+        if (sources == null || graph == null || callback == null || pool == null) {
+            throw new IllegalArgumentException("Input is null");
+        }
+        for (int source : sources) {
+            if (source < 0 || source >= graph.getVertexCount()) {
+                throw new IllegalArgumentException("Source is not in the graph: " + source);
+            }
+        }
+        DijkstraBatch.run(sources, graph, callback, pool);
+    }
+
+    /**
+     * Finds the single source shortest distances with parallel delta-stepping
+     * on the common ForkJoinPool, using a bucket width of the largest edge
+     * weight divided by the average degree. See
+     * {@link #shortPathDeltaStepping(int, CsrGraph, int, ForkJoinPool)}.
+     *
+     * @throws IllegalArgumentException if start is less 0 or if any input
+     *  is null, or if start doesn't exist in the graph.
+     * @throws IllegalStateException if any of the edges are negative
+     * @param start the vertex to start at (source)
+     * @param graph the Graph we are searching in CSR format
+     * @return a map of the shortest distances from start to every other node
+     *         in the graph, with Integer.MAX_VALUE for unreachable nodes
+     */
+    public static Map<Integer, Integer> shortPathDeltaStepping(int start,
+                                                               CsrGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Input is null or start is not in the graph");
+        }
+        return shortPathDeltaStepping(start, graph,
+                DeltaStepping.defaultDelta(graph), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Finds the single source shortest distances with delta-stepping, which
+     * relaxes edges in parallel on {@code pool}. Vertices are grouped into
+     * buckets of width {@code delta} by tentative distance; the edges of
+     * weight at most delta out of a bucket are relaxed repeatedly until the
+     * bucket stays empty, then the heavier ones once. The returned map is
+     * equal to the one {@link #shortPathDijk(int, CsrGraph)} returns.
+     *
+     * A small delta does little wasted work but has many buckets with
+     * little parallelism each; delta at least the largest weight makes it
+     * Bellman-Ford like. The default sits in between.
+     *
+     * @throws IllegalArgumentException if start is less 0 or if any input
+     *  is null, if start doesn't exist in the graph, or if delta is less
+     *  than 1
+     * @throws IllegalStateException if any of the edges are negative
+     * @param start the vertex to start at (source)
+     * @param graph the Graph we are searching in CSR format
+     * @param delta the bucket width
+     * @param pool the pool to relax edges on
+     * @return a map of the shortest distances from start to every other node
+     *         in the graph, with Integer.MAX_VALUE for unreachable nodes
+     */
+    public static Map<Integer, Integer> shortPathDeltaStepping(int start,
+                                                               CsrGraph graph,
+                                                               int delta,
+                                                               ForkJoinPool pool) {
+        if (graph == null || pool == null || start < 0
+                || start >= graph.getVertexCount() || delta < 1) {
+            throw new IllegalArgumentException("Input is null, start is not in the graph, or delta < 1");
+        }
+        return ShortestPathTree.distanceMap(DeltaStepping.search(start, graph,
+                delta, pool));
+    }
+
+    /**
+     * Finds a shortest path from source to target in a graph in adjacency
+     * list format. See {@link #shortestPath(int, int, CsrGraph)}; the graph
+     * is converted to CSR format first, so its vertices must be numbered 0
+     * to n - 1. Convert the graph once and reuse the CsrGraph when running
+     * many queries.
+     *
+     * @throws IllegalArgumentException if any input is null, or if source or
+     *  target doesn't exist in the graph
+     * @throws IllegalStateException if any of the edges searched are negative
+     * @param source the vertex the path starts at
+     * @param target the vertex the path ends at
+     * @param graph the Graph we are searching using an adjacency list
+     * @return the distance and vertices of a shortest path
+     */
+    public static ShortestPath shortestPath(int source, int target,
+                                            GraphAdjList graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null.");
+        }
+        return shortestPath(source, target, new CsrGraph(graph));
+    }
+
+    /**
+     * Finds a shortest path from source to target with bidirectional
+     * Dijkstra. A forward search from source and a backward search from
+     * target (over {@link CsrGraph#reverse()} for directed graphs) take
+     * turns settling whichever side has the smaller tentative distance.
+     * Whenever an edge connects the two searches, the path through it is
+     * remembered if it is the shortest seen. The searches stop once the
+     * smallest tentative distances of the two sides add up to at least that
+     * path's length, since no shorter path can be found after that point.
+     *
+     * For a nearby target this settles far fewer vertices than
+     * {@link #shortPathDijk(int, CsrGraph)}, which has to settle every
+     * reachable vertex.
+     *
+     * @throws IllegalArgumentException if any input is null, or if source or
+     *  target doesn't exist in the graph
+     * @throws IllegalStateException if any of the edges searched are negative
+     * @param source the vertex the path starts at
+     * @param target the vertex the path ends at
+     * @param graph the Graph we are searching in CSR format
+     * @return the distance and vertices of a shortest path
+     */
+    public static ShortestPath shortestPath(int source, int target,
+                                            CsrGraph graph) {
+        if (graph == null || source < 0 || source >= graph.getVertexCount()
+                || target < 0 || target >= graph.getVertexCount()) {
+            throw new IllegalArgumentException("Input is null or source/target is not in the graph");
+        }
+        int n = graph.getVertexCount();
+        CsrGraph[] sides = {graph, graph.reverse()};
+        int[][] dist = new int[2][n];
+        int[][] pred = new int[2][n];
+        IndexedDaryHeap[] heaps = {new IndexedDaryHeap(n), new IndexedDaryHeap(n)};
+        for (int side = 0; side < 2; side++) {
+            Arrays.fill(dist[side], Integer.MAX_VALUE);
+            Arrays.fill(pred[side], -1);
+        }
+        dist[0][source] = 0;
+        dist[1][target] = 0;
+        heaps[0].insert(source, 0);
+        heaps[1].insert(target, 0);
+        long best = source == target ? 0 : Long.MAX_VALUE;
+        int meetFrom = source;
+        int meetTo = source;
+        int settled = 0;
+        while (!heaps[0].isEmpty() && !heaps[1].isEmpty()
+                && (long) heaps[0].peekKey() + heaps[1].peekKey() < best) {
+            int side = heaps[0].peekKey() <= heaps[1].peekKey() ? 0 : 1;
+            int other = 1 - side;
+            int len = heaps[side].peekKey();
+            int u = heaps[side].poll();
+            settled++;
+            int[] offsets = sides[side].getOffsets();
+            int[] targets = sides[side].getTargets();
+            int[] weights = sides[side].getWeights();
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                if (weights[i] < 0) {
+                    throw new IllegalStateException("Edge cannot be negative");
+                }
+                int v = targets[i];
+                int candidate = len + weights[i];
+                if (candidate < dist[side][v]) {
+                    if (dist[side][v] == Integer.MAX_VALUE) {
+                        heaps[side].insert(v, candidate);
+                    } else {
+                        heaps[side].decreaseKey(v, candidate);
+                    }
+                    dist[side][v] = candidate;
+                    pred[side][v] = u;
+                }
+                if (dist[other][v] != Integer.MAX_VALUE
+                        && (long) candidate + dist[other][v] < best) {
+                    best = (long) candidate + dist[other][v];
+                    meetFrom = side == 0 ? u : v;
+                    meetTo = side == 0 ? v : u;
+                }
+            }
+        }
+        if (best == Long.MAX_VALUE) {
+            return new ShortestPath(source, target, Integer.MAX_VALUE,
+                    new int[0], settled);
+        }
+        return new ShortestPath(source, target, (int) best,
+                joinPath(source, target, meetFrom, meetTo, pred[0], pred[1]),
+                settled);
+    }
+
+    /**
+     * Finds a shortest path from source to target with A* search. This is
+     * Dijkstra's algorithm from source where every vertex is keyed by its
+     * tentative distance plus the heuristic's estimate of its distance to
+     * target, so the search heads toward target instead of growing evenly
+     * in every direction. It stops as soon as target is settled.
+     *
+     * The heuristic must never overestimate and must be consistent (the
+     * estimate may drop by at most the weight of an edge along that edge),
+     * or the path found may not be a shortest one. A {@link LandmarkTable}
+     * is such a heuristic and gives the ALT algorithm.
+     *
+     * @throws IllegalArgumentException if any input is null, or if source or
+     *  target doesn't exist in the graph
+     * @throws IllegalStateException if any of the edges searched are negative
+     * @param source the vertex the path starts at
+     * @param target the vertex the path ends at
+     * @param graph the Graph we are searching in CSR format
+     * @param heuristic a lower bound on the distance to target
+     * @return the distance and vertices of a shortest path
+     */
+    public static ShortestPath shortestPathAStar(int source, int target,
+                                                 CsrGraph graph,
+                                                 AStarHeuristic heuristic) {
+        if (graph == null || heuristic == null || source < 0
+                || source >= graph.getVertexCount() || target < 0
+                || target >= graph.getVertexCount()) {
+            throw new IllegalArgumentException("Input is null or source/target is not in the graph");
+        }
+        int n = graph.getVertexCount();
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        int[] dist = new int[n];
+        int[] pred = new int[n];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        Arrays.fill(pred, -1);
+        IndexedDaryHeap heap = new IndexedDaryHeap(n);
+        dist[source] = 0;
+        heap.insert(source, heuristic.estimate(source, target));
+        int settled = 0;
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled++;
+            if (u == target) {
+                return new ShortestPath(source, target, dist[target],
+                        joinPath(source, target, target, -1, pred, null),
+                        settled);
+            }
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                if (weights[i] < 0) {
+                    throw new IllegalStateException("Edge cannot be negative");
+                }
+                int v = targets[i];
+                int candidate = dist[u] + weights[i];
+                if (candidate < dist[v]) {
+                    int key = candidate + heuristic.estimate(v, target);
+                    if (dist[v] == Integer.MAX_VALUE) {
+                        heap.insert(v, key);
+                    } else if (heap.contains(v)) {
+                        heap.decreaseKey(v, key);
+                    }
+                    dist[v] = candidate;
+                    pred[v] = u;
+                }
+            }
+        }
+        return new ShortestPath(source, target, Integer.MAX_VALUE, new int[0],
+                settled);
+    }
+
+    /**
+     * Builds the vertices of a path from the predecessors of a forward and a
+     * backward search that met on the edge from {@code meetFrom} to
+     * {@code meetTo}.
+     *
+     * @param source the vertex the path starts at
+     * @param target the vertex the path ends at
+     * @param meetFrom the end of the forward part of the path
+     * @param meetTo the start of the backward part of the path, or -1 if the
+     *        forward part already ends at target
+     * @param forward the predecessor of every vertex toward source
+     * @param backward the successor of every vertex toward target, or null
+     *        if meetTo is -1
+     * @return the vertices of the path from source to target
+     */
+    private static int[] joinPath(int source, int target, int meetFrom,
+                                  int meetTo, int[] forward, int[] backward) {
+        if (source == target) {
+            return new int[] {source};
+        }
+        int length = 0;
+        for (int v = meetFrom; v != -1; v = forward[v]) {
+            length++;
+        }
+        for (int v = meetTo; v != -1; v = backward[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        int i = 0;
+        for (int v = meetFrom; v != -1; v = forward[v]) {
+            path[i++] = v;
+        }
+        for (int a = 0, b = i - 1; a < b; a++, b--) {
+            int swap = path[a];
+            path[a] = path[b];
+            path[b] = swap;
+        }
+        for (int v = meetTo; v != -1; v = backward[v]) {
+            path[i++] = v;
+        }
+        return path;
+    }
+
+    /**
+     * Creates the priority queue Dijkstra's algorithm should use for a graph:
+     * a bucket queue if all weights are between 0 and BUCKET_MAX_WEIGHT, and
+     * a 4-ary heap otherwise.
+     *
+     * @param graph the graph to search
+     * @return an empty queue with room for every vertex of the graph
+     */
+    static IndexedPriorityQueue newQueue(CsrGraph graph) {
+        if (graph.getMinWeight() >= 0
+                && graph.getMaxWeight() <= BUCKET_MAX_WEIGHT) {
+            return new BucketQueue(graph.getVertexCount(), graph.getMaxWeight());
+        }
+        return new IndexedDaryHeap(graph.getVertexCount());
+    }
+
+    /**
+     * Runs Dijkstra's shortest path algorithm on a graph in CSR format,
+     * always using a heap with the given number of children per node. The
+     * returned map holds the same distances as
+     * {@link #shortPathDijk(int, GraphAdjList)}.
+     *
+     * Unlike the adjacency list version, which pushes a new
+     * VertexDistancePair for every relaxation and skips stale ones when they
+     * are polled, this keeps each vertex in an {@link IndexedDaryHeap} at
+     * most once and lowers its key in place. The heap never holds more than
+     * V entries and nothing is allocated per edge.
+     *
+     * @throws IllegalArgumentException if start is less 0 or if any input
+     *  is null, if start doesn't exist in the graph, or if arity is less
+     *  than 2
+     * @throws IllegalStateException if any of the edges are negative
+     * @param start the vertex to start at (source)
+     * @param graph the Graph we are searching in CSR format
+     * @param arity the number of children per node of the heap
+     * @return a map of the shortest distances from start to every other node
+     *         in the graph, with Integer.MAX_VALUE for unreachable nodes
+     */
+    public static Map<Integer, Integer> shortPathDijk(int start,
+                                                      CsrGraph graph,
+                                                      int arity) {
+        if (graph == null || start < 0 || start >= graph.getVertexCount()) {
+            throw new IllegalArgumentException("Input is null or start is not in the graph");
+        }
+        int[] dist = new int[graph.getVertexCount()];
+        dijkstra(start, graph, new IndexedDaryHeap(dist.length, arity), dist,
+                null);
+        return ShortestPathTree.distanceMap(dist);
+    }
+
+    /**
+     * Fills {@code dist} with the shortest distance from start to every
+     * vertex, or Integer.MAX_VALUE if there is no path, and {@code pred}
+     * (if it is not null) with the vertex before every vertex on its
+     * shortest path, or -1 for start and unreachable vertices.
+     *
+     * @throws IllegalStateException if an edge out of a reached vertex is
+     *  negative
+     * @param start the vertex to start at
+     * @param graph the graph to search
+     * @param heap an empty queue with room for every vertex
+     * @param dist the array to fill, one entry per vertex
+     * @param pred the array to fill with predecessors, or null
+     */
+    static void dijkstra(int start, CsrGraph graph, IndexedPriorityQueue heap,
+                         int[] dist, int[] pred) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        if (pred != null) {
+            Arrays.fill(pred, -1);
+        }
+        dist[start] = 0;
+        heap.insert(start, 0);
+        while (!heap.isEmpty()) {
+            int len = heap.peekKey();
+            int v = heap.poll();
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                if (weights[i] < 0) {
+                    throw new IllegalStateException("Edge cannot be negative");
+                }
+                int next = targets[i];
+                int candidate = len + weights[i];
+                if (candidate < dist[next]) {
+                    if (dist[next] == Integer.MAX_VALUE) {
+                        heap.insert(next, candidate);
+                    } else {
+                        heap.decreaseKey(next, candidate);
+                    }
+                    dist[next] = candidate;
+                    if (pred != null) {
+                        pred[next] = v;
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Run Prim's algorithm on the given graph and return the MST/MSF
      * in the form of a set of Edges.  If the graph is disconnected, and
@@ -244,6 +1099,65 @@ public class GraphAlgs {
         }
     }
 
+    /**
+     * Runs Prim's algorithm on a graph in CSR format and returns the MST/MSF
+     * in the form of a set of Edges, like {@link #mstPrim(GraphAdjList)}.
+     *
+     * This is the eager version of Prim's algorithm: instead of queueing
+     * every edge out of the tree, it keeps each vertex outside the tree in
+     * an {@link IndexedDaryHeap} at most once, keyed by the lightest edge
+     * known to connect it to the tree, and lowers that key in place when a
+     * lighter edge shows up. The heap never holds more than V entries, the
+     * edge for every vertex is tracked in int arrays, and an Edge object is
+     * only created for the edges that end up in the MST/MSF.
+     *
+     * @throws IllegalArgumentException if any input is null
+     * @param graph the Graph we are searching in CSR format
+     * @return the MST/MSF of the graph
+     */
+    public static Set<Edge> mstPrim(CsrGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null.");
+        }
+        int n = graph.getVertexCount();
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        boolean[] inTree = new boolean[n];
+        int[] bestFrom = new int[n];
+        IndexedDaryHeap heap = new IndexedDaryHeap(n);
+        Set<Edge> MST = new LinkedHashSet<>();
+        for (int root = 0; root < n; root++) {
+            if (inTree[root]) {
+                continue;
+            }
+            bestFrom[root] = -1;
+            heap.insert(root, 0);
+            while (!heap.isEmpty()) {
+                int weight = heap.peekKey();
+                int u = heap.poll();
+                inTree[u] = true;
+                if (bestFrom[u] >= 0) {
+                    MST.add(new Edge(bestFrom[u], u, weight, false));
+                }
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int v = targets[i];
+                    if (inTree[v]) {
+                        continue;
+                    }
+                    if (!heap.contains(v)) {
+                        heap.insert(v, weights[i]);
+                        bestFrom[v] = u;
+                    } else if (weights[i] < heap.getKey(v)) {
+                        heap.decreaseKey(v, weights[i]);
+                        bestFrom[v] = u;
+                    }
+                }
+            }
+        }
+        return MST;
+    }
+
     /**
      * Run Kruskal's algorithm on the given graph and return the MST/MSF
      * in the form of a set of Edges.  If the graph is disconnected, and
@@ -301,4 +1215,175 @@ public class GraphAlgs {
         }
         return MST;
     }
+
+    /**
+     * Runs Kruskal's algorithm on a graph in CSR format and returns the
+     * MST/MSF in the form of a set of Edges, like
+     * {@link #mstKruskal(GraphAdjList)}. Each undirected edge is taken once
+     * (from its smaller endpoint), packed into a long together with its
+     * weight, and the packed array is sorted with
+     * {@link Arrays#parallelSort(long[], int, int)}. The disjoint set is
+     * an {@link IntDisjointSet}.
+     *
+     * The scan over the sorted edges stops as soon as the disjoint set is
+     * down to one component, so on a connected graph the edges heavier than
+     * the last tree edge are never looked at. A graph with more than one
+     * component needs every edge scanned to be sure its forest is done.
+     *
+     * @throws IllegalArgumentException if any input is null
+     * @param graph the Graph we are searching in CSR format
+     * @return the MST/MSF of the graph
+     */
+    public static Set<Edge> mstKruskal(CsrGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null.");
+        }
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        int n = graph.getVertexCount();
+        long[] sorted = new long[graph.getArcCount()];
+        int count = packEdges(graph, sorted);
+        Arrays.parallelSort(sorted, 0, count);
+        IntDisjointSet disjointSet = new IntDisjointSet(n);
+        Set<Edge> MST = new LinkedHashSet<>();
+        for (int k = 0; k < count && disjointSet.componentCount() > 1; k++) {
+            int arc = (int) sorted[k];
+            int u = graph.sourceOf(arc);
+            int v = targets[arc];
+            if (disjointSet.union(u, v)) {
+                MST.add(new Edge(u, v, weights[arc], false));
+            }
+        }
+        return MST;
+    }
+
+    /**
+     * Runs Filter-Kruskal on a graph in CSR format using the common
+     * ForkJoinPool. See {@link #mstFilterKruskal(CsrGraph, ForkJoinPool)}.
+     *
+     * @throws IllegalArgumentException if any input is null
+     * @param graph the Graph we are searching in CSR format
+     * @return the MST/MSF of the graph
+     */
+    public static Set<Edge> mstFilterKruskal(CsrGraph graph) {
+        return mstFilterKruskal(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs Filter-Kruskal on a graph in CSR format and returns the MST/MSF
+     * in the form of a set of Edges, like {@link #mstKruskal(CsrGraph)}.
+     * Instead of sorting every edge, the edges are split around a pivot
+     * weight as in quicksort, the light ones are handled first, and the
+     * heavy ones whose endpoints are then already connected are dropped
+     * before the rest are handled. On graphs with many more edges than
+     * vertices most heavy edges are dropped without being sorted. Large
+     * splits and filters run in parallel on {@code pool}.
+     *
+     * Ties between equal weights are broken the same way as in
+     * {@link #mstKruskal(CsrGraph)}, so both return the same edges.
+     *
+     * @throws IllegalArgumentException if any input is null
+     * @param graph the Graph we are searching in CSR format
+     * @param pool the pool to split and filter the edges on
+     * @return the MST/MSF of the graph
+     */
+    public static Set<Edge> mstFilterKruskal(CsrGraph graph, ForkJoinPool pool) {
+        if (graph == null || pool == null) {
+            throw new IllegalArgumentException("Input is null");
+        }
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        long[] edges = new long[graph.getArcCount()];
+        int count = packEdges(graph, edges);
+        int[] forest = FilterKruskal.run(graph, edges, count, pool);
+        Set<Edge> MST = new LinkedHashSet<>();
+        for (int arc : forest) {
+            MST.add(new Edge(graph.sourceOf(arc), targets[arc], weights[arc], false));
+        }
+        return MST;
+    }
+
+    /**
+     * Runs parallel Boruvka on a graph in CSR format using the common
+     * ForkJoinPool. See {@link #mstBoruvka(CsrGraph, ForkJoinPool)}.
+     *
+     * @throws IllegalArgumentException if any input is null
+     * @param graph the Graph we are searching in CSR format
+     * @return the MST/MSF of the graph
+     */
+    public static Set<Edge> mstBoruvka(CsrGraph graph) {
+        return mstBoruvka(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs Boruvka's algorithm on a graph in CSR format and returns the
+     * MST/MSF in the form of a set of Edges, like {@link #mstPrim(CsrGraph)}.
+     * Every round, each component finds its lightest edge to another
+     * component, in parallel over blocks of edges, and then the components
+     * are joined along those edges in a {@link ConcurrentDisjointSet}, in
+     * parallel over ranges of vertices. Rounds go on until no edge joins
+     * two components, so a disconnected graph gets a spanning forest.
+     *
+     * Ties between equal weights are broken the same way as in
+     * {@link #mstKruskal(CsrGraph)}, so both return the same edges.
+     *
+     * @throws IllegalArgumentException if any input is null
+     * @param graph the Graph we are searching in CSR format
+     * @param pool the pool to run the rounds on
+     * @return the MST/MSF of the graph
+     */
+    public static Set<Edge> mstBoruvka(CsrGraph graph, ForkJoinPool pool) {
+        if (graph == null || pool == null) {
+            throw new IllegalArgumentException("Input is null");
+        }
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        long[] edges = new long[graph.getArcCount()];
+        int count = packEdges(graph, edges);
+        int[] forest = Boruvka.run(graph, edges, count, pool);
+        Set<Edge> MST = new LinkedHashSet<>();
+        for (int arc : forest) {
+            MST.add(new Edge(graph.sourceOf(arc), targets[arc], weights[arc], false));
+        }
+        return MST;
+    }
+
+    /**
+     * Packs every edge of a graph in CSR format once into a long of its
+     * weight and arc index, so that sorting the longs sorts the edges by
+     * weight and then by arc index. Undirected edges are taken from their
+     * smaller endpoint, and self loops are left out.
+     *
+     * @param graph the graph whose edges to pack
+     * @param edges the array to pack the edges into, at least as long as
+     *        the graph has arcs
+     * @return the number of edges packed
+     */
+    private static int packEdges(CsrGraph graph, long[] edges) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] weights = graph.getWeights();
+        int count = 0;
+        for (int u = 0; u < graph.getVertexCount(); u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                if (u < v || (graph.isDirected() && u != v)) {
+                    edges[count++] = pack(weights[i], i);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Packs a key and a non-negative value into one long, such that the
+     * longs compare the same way as the keys do.
+     *
+     * @param key the key stored in the upper 32 bits
+     * @param value the value stored in the lower 32 bits
+     * @return the packed long
+     */
+    private static long pack(int key, int value) {
+        return ((long) key << 32) | (value & 0xFFFFFFFFL);
+    }
 }
\ No newline at end of file
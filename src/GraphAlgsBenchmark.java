@@ -0,0 +1,463 @@
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+
+/**
+ * Rough wall clock timings of the GraphAlgs variants on generated graphs.
+ * This is not a test and is not run by the test suite; run it by hand with
+ * {@code java -Xmx4g GraphAlgsBenchmark [vertices]} and compare the lines it
+ * prints. Every timing is the best of several runs after a warm up.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public class GraphAlgsBenchmark {
+
+    private static final int RUNS = 5;
+
+    /**
+     * Runs every benchmark.
+     *
+     * @param args optionally, the number of vertices of the generated graphs
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        benchmarkDijkstra(n);
+        benchmarkDeltaStepping(n);
+        benchmarkBatch(n);
+        benchmarkDynamic(n);
+        benchmarkPointToPoint(n);
+        benchmarkContractionHierarchy(n);
+        benchmarkMst(n);
+        benchmarkDisjointSet(n);
+    }
+
+    /**
+     * Compares the adjacency list Dijkstra with the CSR heap and bucket
+     * queue versions, on small and on large weights.
+     *
+     * @param n the number of vertices
+     */
+    private static void benchmarkDijkstra(int n) {
+        for (int maxWeight : new int[] {100, 1000000}) {
+            GraphAdjList list = randomGraph(n, 4, maxWeight, 42);
+            CsrGraph csr = new CsrGraph(list);
+            System.out.println("Dijkstra, " + n + " vertices, weights 1.."
+                    + maxWeight);
+            report("PriorityQueue<VertexDistancePair>",
+                time(() -> GraphAlgs.shortPathDijk(0, list)));
+            report("IndexedDaryHeap (4-ary)",
+                time(() -> GraphAlgs.shortPathDijk(0, csr, 4)));
+            report("automatic (bucket queue if small)",
+                time(() -> GraphAlgs.shortPathDijk(0, csr)));
+        }
+    }
+
+    /**
+     * Times delta-stepping with 1 thread up to every available processor,
+     * against the sequential CSR Dijkstra.
+     *
+     * @param n the number of vertices
+     */
+    private static void benchmarkDeltaStepping(int n) {
+        CsrGraph csr = new CsrGraph(randomGraph(n, 8, 1000000, 7));
+        System.out.println("Delta-stepping, " + n + " vertices, delta "
+                + DeltaStepping.defaultDelta(csr));
+        report("Dijkstra (4-ary heap)",
+            time(() -> GraphAlgs.shortPathDijk(0, csr, 4)));
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= processors; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            report(threads + " thread(s)", time(() -> GraphAlgs
+                .shortPathDeltaStepping(0, csr, DeltaStepping.defaultDelta(csr), pool)));
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Times Dijkstra from many sources, one after another against batches
+     * on 1 thread up to every available processor.
+     *
+     * @param n the number of vertices
+     */
+    private static void benchmarkBatch(int n) {
+        CsrGraph csr = new CsrGraph(randomGraph(n, 4, 100, 11));
+        int[] sources = new int[32];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = (int) ((long) i * n / sources.length);
+        }
+        System.out.println("Batch Dijkstra, " + n + " vertices, "
+                + sources.length + " sources");
+        report("shortPathDijk per source", time(() -> {
+            for (int source : sources) {
+                GraphAlgs.shortPathDijk(source, csr);
+            }
+        }));
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= processors; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            report(threads + " thread(s)", time(() -> GraphAlgs
+                .shortPathDijkBatch(sources, csr, tree -> { }, pool)));
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Times keeping distances up to date under random edge insertions with
+     * DynamicShortestPaths, against running Dijkstra again after every
+     * insertion, which is taken as the number of insertions times one run.
+     *
+     * @param n the number of vertices
+     */
+    private static void benchmarkDynamic(int n) {
+        CsrGraph csr = new CsrGraph(randomGraph(n, 4, 1000, 13));
+        Random random = new Random(17);
+        int[][] inserts = new int[1000][];
+        for (int i = 0; i < inserts.length; i++) {
+            inserts[i] = new int[] {random.nextInt(n), random.nextInt(n),
+                1 + random.nextInt(1000)};
+        }
+        DynamicShortestPaths paths = new DynamicShortestPaths(0, csr);
+        long changed = 0;
+        long begin = System.nanoTime();
+        for (int[] edge : inserts) {
+            paths.addEdge(edge[0], edge[1], edge[2]);
+            changed += paths.getLastChangedCount();
+        }
+        long nanos = System.nanoTime() - begin;
+        System.out.println("Dynamic shortest paths, " + n + " vertices, "
+                + inserts.length + " edge insertions, " + changed / inserts.length
+                + " vertices changed per insertion");
+        report("full Dijkstra after every insertion",
+            inserts.length * time(() -> GraphAlgs.shortPathDijk(0, csr)));
+        report("incremental after every insertion", nanos);
+    }
+
+    /**
+     * Times local point to point queries on a grid (targets a few rows away
+     * from the source) with bidirectional Dijkstra and ALT (A* with 16
+     * landmarks) against a full Dijkstra run, and prints how many vertices
+     * the queries settle.
+     *
+     * @param n the number of vertices, rounded down to a square
+     */
+    private static void benchmarkPointToPoint(int n) {
+        int side = (int) Math.sqrt(n);
+        CsrGraph grid = gridGraph(side, 100, 3);
+        Random random = new Random(5);
+        int[] sources = new int[100];
+        int[] targets = new int[sources.length];
+        for (int q = 0; q < sources.length; q++) {
+            int row = random.nextInt(side - 10);
+            int col = random.nextInt(side - 10);
+            sources[q] = row * side + col;
+            targets[q] = (row + random.nextInt(10)) * side + col + random.nextInt(10);
+        }
+        long settled = 0;
+        for (int q = 0; q < sources.length; q++) {
+            settled += GraphAlgs.shortestPath(sources[q], targets[q], grid)
+                .getSettledCount();
+        }
+        System.out.println("Point to point, " + side + "x" + side
+                + " grid, " + sources.length + " local queries, "
+                + settled / sources.length + " settled per query");
+        report("full Dijkstra per query", time(() -> {
+            for (int q = 0; q < sources.length; q++) {
+                GraphAlgs.shortPathDijk(sources[q], grid, 4);
+            }
+        }));
+        report("bidirectional Dijkstra", time(() -> {
+            for (int q = 0; q < sources.length; q++) {
+                GraphAlgs.shortestPath(sources[q], targets[q], grid);
+            }
+        }));
+        for (LandmarkTable.Selection selection : LandmarkTable.Selection.values()) {
+            LandmarkTable landmarks = LandmarkTable.build(grid, 16, selection);
+            long altSettled = 0;
+            for (int q = 0; q < sources.length; q++) {
+                altSettled += GraphAlgs.shortestPathAStar(sources[q], targets[q],
+                    grid, landmarks).getSettledCount();
+            }
+            report("ALT, " + selection + " landmarks, "
+                    + altSettled / sources.length + " settled per query",
+                time(() -> {
+                    for (int q = 0; q < sources.length; q++) {
+                        GraphAlgs.shortestPathAStar(sources[q], targets[q],
+                            grid, landmarks);
+                    }
+                }));
+        }
+    }
+
+    /**
+     * Times contraction hierarchy preprocessing on a grid, prints how many
+     * shortcuts it added, and times random queries (sources and targets
+     * anywhere in the grid) against bidirectional Dijkstra.
+     *
+     * @param n the number of vertices, rounded down to a square
+     */
+    private static void benchmarkContractionHierarchy(int n) {
+        int side = (int) Math.sqrt(n);
+        CsrGraph grid = gridGraph(side, 100, 3);
+        long begin = System.nanoTime();
+        ContractionHierarchy hierarchy = new ContractionHierarchy(grid);
+        long preprocessing = System.nanoTime() - begin;
+        Random random = new Random(9);
+        int[] sources = new int[1000];
+        int[] targets = new int[sources.length];
+        for (int q = 0; q < sources.length; q++) {
+            sources[q] = random.nextInt(grid.getVertexCount());
+            targets[q] = random.nextInt(grid.getVertexCount());
+        }
+        System.out.println("Contraction hierarchy, " + side + "x" + side
+                + " grid, " + hierarchy.getShortcutCount() + " shortcuts for "
+                + grid.getArcCount() + " edges, " + sources.length
+                + " random queries");
+        report("preprocessing", preprocessing);
+        report("bidirectional Dijkstra, " + sources.length / 10 + " queries",
+            time(() -> {
+                for (int q = 0; q < sources.length / 10; q++) {
+                    GraphAlgs.shortestPath(sources[q], targets[q], grid);
+                }
+            }));
+        report("distance queries", time(() -> {
+            for (int q = 0; q < sources.length; q++) {
+                hierarchy.distance(sources[q], targets[q]);
+            }
+        }));
+        report("path queries (unpacked)", time(() -> {
+            for (int q = 0; q < sources.length; q++) {
+                hierarchy.shortestPath(sources[q], targets[q]);
+            }
+        }));
+    }
+
+    /**
+     * Compares the adjacency list MST algorithms with the CSR versions.
+     *
+     * @param n the number of vertices
+     */
+    private static void benchmarkMst(int n) {
+        GraphAdjList list = randomGraph(n, 8, 1000000, 19);
+        CsrGraph csr = new CsrGraph(list);
+        System.out.println("MST, " + n + " vertices, " + csr.getArcCount() / 2
+                + " edges");
+        report("mstPrim (PriorityQueue<Edge>)", time(() -> GraphAlgs.mstPrim(list)));
+        report("mstPrim CSR (eager, indexed heap)", time(() -> GraphAlgs.mstPrim(csr)));
+        report("mstKruskal (PriorityQueue<Edge>)", time(() -> GraphAlgs.mstKruskal(list)));
+        report("mstKruskal CSR", time(() -> GraphAlgs.mstKruskal(csr)));
+        report("mstFilterKruskal CSR", time(() -> GraphAlgs.mstFilterKruskal(csr)));
+        report("mstBoruvka CSR", time(() -> GraphAlgs.mstBoruvka(csr)));
+    }
+
+    /**
+     * Compares the synchronized DisjointSet, IntDisjointSet and both
+     * linking rules of ConcurrentDisjointSet on 4n random unions mixed with
+     * 4n sameSet queries, split over the available processors.
+     *
+     * @param n the number of elements
+     */
+    private static void benchmarkDisjointSet(int n) {
+        Random random = new Random(23);
+        int[] pairs = new int[16 * n];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = random.nextInt(n);
+        }
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        int perThread = pairs.length / 2 / threads;
+        List<Integer> elements = new ArrayList<>(n);
+        for (int v = 0; v < n; v++) {
+            elements.add(v);
+        }
+        System.out.println("Disjoint sets, " + n + " elements, " + threads
+                + " threads");
+        report("DisjointSet (synchronized)", time(() -> {
+            DisjointSet<Integer> set = new DisjointSet<>(elements);
+            inParallel(threads, t -> {
+                for (int i = t * perThread; i < (t + 1) * perThread; i++) {
+                    int a = pairs[2 * i];
+                    int b = pairs[2 * i + 1];
+                    synchronized (set) {
+                        if (i % 2 == 0) {
+                            set.union(a, b);
+                        } else {
+                            set.find(a).equals(set.find(b));
+                        }
+                    }
+                }
+            });
+        }));
+        report("IntDisjointSet (one thread)", time(() -> {
+            IntDisjointSet set = new IntDisjointSet(n);
+            for (int i = 0; i < threads * perThread; i++) {
+                if (i % 2 == 0) {
+                    set.union(pairs[2 * i], pairs[2 * i + 1]);
+                } else {
+                    set.sameSet(pairs[2 * i], pairs[2 * i + 1]);
+                }
+            }
+        }));
+        for (boolean randomPriority : new boolean[] {false, true}) {
+            report(randomPriority ? "ConcurrentDisjointSet (random priority)"
+                            : "ConcurrentDisjointSet (index)", time(() -> {
+                ConcurrentDisjointSet set = randomPriority
+                        ? new ConcurrentDisjointSet(n, 29) : new ConcurrentDisjointSet(n);
+                inParallel(threads, t -> {
+                    for (int i = t * perThread; i < (t + 1) * perThread; i++) {
+                        if (i % 2 == 0) {
+                            set.union(pairs[2 * i], pairs[2 * i + 1]);
+                        } else {
+                            set.sameSet(pairs[2 * i], pairs[2 * i + 1]);
+                        }
+                    }
+                });
+            }));
+        }
+    }
+
+    /**
+     * Runs a task on several threads, released together, and waits for all
+     * of them. The tests use this too. If any thread throws, the first
+     * throwable is rethrown here once every thread is done, with the others
+     * added to it as suppressed.
+     *
+     * @throws IllegalStateException if this thread is interrupted while
+     *  waiting, or a thread throws a checked exception
+     * @param threads the number of threads
+     * @param task the task, given the index of its thread
+     */
+    static void inParallel(int threads, IntConsumer task) {
+        CountDownLatch start = new CountDownLatch(1);
+        Throwable[] failures = new Throwable[threads];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    task.accept(index);
+                } catch (Throwable e) {
+                    failures[index] = e;
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for threads", e);
+            }
+        }
+        Throwable first = null;
+        for (Throwable failure : failures) {
+            if (failure == null) {
+                continue;
+            }
+            if (first == null) {
+                first = failure;
+            } else {
+                first.addSuppressed(failure);
+            }
+        }
+        if (first instanceof RuntimeException) {
+            throw (RuntimeException) first;
+        }
+        if (first instanceof Error) {
+            throw (Error) first;
+        }
+        if (first != null) {
+            throw new IllegalStateException(first);
+        }
+    }
+
+    /**
+     * Generates a side by side grid with random weights on the edges between
+     * horizontally and vertically neighboring vertices.
+     *
+     * @param side the number of rows and columns
+     * @param maxWeight the largest edge weight
+     * @param seed the random seed
+     * @return the generated graph
+     */
+    static CsrGraph gridGraph(int side, int maxWeight, long seed) {
+        Random random = new Random(seed);
+        Set<Edge> edges = new LinkedHashSet<>();
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                int v = row * side + col;
+                if (col + 1 < side) {
+                    edges.add(new Edge(v, v + 1, 1 + random.nextInt(maxWeight), false));
+                }
+                if (row + 1 < side) {
+                    edges.add(new Edge(v, v + side, 1 + random.nextInt(maxWeight), false));
+                }
+            }
+        }
+        return new CsrGraph(side * side, edges);
+    }
+
+    /**
+     * Generates a random undirected graph in which every vertex has an edge
+     * to the next vertex (so the graph is connected) and to
+     * {@code degree - 1} random vertices.
+     *
+     * @param n the number of vertices
+     * @param degree the number of edges added per vertex
+     * @param maxWeight the largest edge weight
+     * @param seed the random seed
+     * @return the generated graph
+     */
+    static GraphAdjList randomGraph(int n, int degree, int maxWeight,
+                                    long seed) {
+        Random random = new Random(seed);
+        List<Integer> vertices = new ArrayList<>(n);
+        Set<Edge> edges = new LinkedHashSet<>();
+        for (int v = 0; v < n; v++) {
+            vertices.add(v);
+            if (v + 1 < n) {
+                edges.add(new Edge(v, v + 1, 1 + random.nextInt(maxWeight), false));
+            }
+            for (int k = 1; k < degree; k++) {
+                edges.add(new Edge(v, random.nextInt(n),
+                        1 + random.nextInt(maxWeight), false));
+            }
+        }
+        return new GraphAdjList(vertices, edges);
+    }
+
+    /**
+     * Times a task.
+     *
+     * @param task the task to time
+     * @return the shortest time of RUNS runs after one warm up run, in
+     *         nanoseconds
+     */
+    static long time(Runnable task) {
+        task.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long begin = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - begin);
+        }
+        return best;
+    }
+
+    /**
+     * Prints a timing.
+     *
+     * @param name what was timed
+     * @param nanos the time it took in nanoseconds
+     */
+    static void report(String name, long nanos) {
+        System.out.printf("  %-40s %10.2f ms%n", name, nanos / 1e6);
+    }
+}
@@ -1,15 +1,28 @@
 import org.junit.Before;
 import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Basic student tests to check GraphAlgs. These tests are in
@@ -658,6 +671,94 @@ public class GraphAlgsStudentTests {
     }
     
     
+    @Test
+    public void testDepthFirstSearchLongPath() {
+        int n = 300;
+        Set<Edge> edges = new LinkedHashSet<>();
+        for (int v = 0; v + 1 < n; v++) {
+            edges.add(new Edge(n - 1 - v, n - 2 - v, 1, false));
+        }
+        edges.add(new Edge(n - 1, 70, 1, false));
+        List<Integer> vertices = vertices(n);
+        adjMatrix = new GraphAdjMatrix(vertices, createMatrix(vertices, edges));
+        List<Integer> dfsActual = new LinkedList<>();
+        assertTrue(GraphAlgs.depthFirstSearch(n - 1, adjMatrix, dfsActual));
+
+        List<Integer> dfsExpected = new LinkedList<>();
+        dfsExpected.add(n - 1);
+        for (int v = 70; v >= 0; v--) {
+            dfsExpected.add(v);
+        }
+        for (int v = 71; v < n - 1; v++) {
+            dfsExpected.add(v);
+        }
+        assertEquals(dfsExpected, dfsActual);
+    }
+
+    @Test
+    public void testDepthFirstSearchDeepPath() {
+        // deep enough to overflow the stack of a recursive dfs
+        int n = 25000;
+        Set<Edge> edges = new LinkedHashSet<>();
+        for (int v = 0; v + 1 < n; v++) {
+            edges.add(new Edge(v, v + 1, 1, false));
+        }
+        BitAdjMatrix matrix = new BitAdjMatrix(new GraphAdjList(vertices(n), edges));
+        List<Integer> dfsActual = new ArrayList<>();
+        assertTrue(GraphAlgs.depthFirstSearch(0, matrix, dfsActual));
+        assertEquals(n, dfsActual.size());
+        for (int v = 0; v < n; v++) {
+            assertEquals(v, (int) dfsActual.get(v));
+        }
+    }
+
+    @Test
+    public void testBitAdjMatrix() {
+        adjList = new GraphAdjList(basicVertices, basicEdges);
+        adjMatrix = new GraphAdjMatrix(basicVertices, basicMatrix);
+        BitAdjMatrix fromList = new BitAdjMatrix(adjList);
+        BitAdjMatrix fromMatrix = new BitAdjMatrix(adjMatrix);
+
+        assertEquals(7, fromMatrix.size());
+        for (int u = 0; u < 7; u++) {
+            assertArrayEquals(fromMatrix.getRow(u), fromList.getRow(u));
+            for (int v = 0; v < 7; v++) {
+                assertEquals(basicMatrix[u][v] != 0, fromMatrix.hasEdge(u, v));
+            }
+        }
+        assertEquals(4, fromMatrix.degree(3));
+        assertEquals(5, fromMatrix.nextNeighbor(3, 4));
+        assertEquals(-1, fromMatrix.nextNeighbor(3, 7));
+
+        long[] common = new long[fromMatrix.getWordsPerRow()];
+        fromMatrix.orRow(0, common);
+        fromMatrix.andRow(5, common);
+        assertEquals((1L << 1) | (1L << 3), common[0]);
+    }
+
+    @Test
+    public void testBitAdjMatrixSearch() {
+        adjMatrix = new GraphAdjMatrix(basicVertices, basicMatrix);
+        BitAdjMatrix matrix = new BitAdjMatrix(adjMatrix);
+        List<Integer> dfsExpected = new LinkedList<>();
+        List<Integer> dfsActual = new LinkedList<>();
+        assertTrue(GraphAlgs.depthFirstSearch(0, adjMatrix, dfsExpected));
+        assertTrue(GraphAlgs.depthFirstSearch(0, matrix, dfsActual));
+        assertEquals(dfsExpected, dfsActual);
+
+        adjList = new GraphAdjList(basicVertices, basicEdges);
+        List<Integer> bfsExpected = new LinkedList<>();
+        List<Integer> bfsActual = new LinkedList<>();
+        assertTrue(GraphAlgs.breadthFirstSearch(0, adjList, bfsExpected));
+        assertTrue(GraphAlgs.breadthFirstSearch(0, matrix, bfsActual));
+        assertEquals(bfsExpected, bfsActual);
+
+        matrix = new BitAdjMatrix(new GraphAdjMatrix(basicVertices6, basicMatrix6));
+        bfsActual = new LinkedList<>();
+        assertFalse(GraphAlgs.breadthFirstSearch(1, matrix, bfsActual));
+        assertEquals(3, bfsActual.size());
+    }
+
     @Test
     public void testShortPathDijk() {
         adjList = new GraphAdjList(basicVertices, basicEdges);
@@ -1023,6 +1124,1076 @@ public class GraphAlgsStudentTests {
         assertEqualsSet(mstExpected, mstActual);
     }
 
+    @Test
+    public void testCsrGraph() {
+        adjList = new GraphAdjList(basicVertices, basicEdges);
+        CsrGraph fromList = new CsrGraph(adjList);
+        CsrGraph fromEdges = new CsrGraph(basicVertices.size(), basicEdges);
+
+        assertEquals(7, fromList.getVertexCount());
+        assertEquals(20, fromList.getArcCount());
+        assertArrayEquals(fromList.getOffsets(), fromEdges.getOffsets());
+        assertArrayEquals(fromList.getTargets(), fromEdges.getTargets());
+        assertArrayEquals(fromList.getWeights(), fromEdges.getWeights());
+        assertEquals(3, fromList.sourceOf(fromList.getOffsets()[3]));
+    }
+
+    @Test
+    public void testCsrBreadthFirstSearch() {
+        adjList = new GraphAdjList(basicVertices, basicEdges);
+        List<Integer> bfsExpected = new LinkedList<>();
+        List<Integer> bfsActual = new LinkedList<>();
+        assertTrue(GraphAlgs.breadthFirstSearch(0, adjList, bfsExpected));
+        assertTrue(GraphAlgs.breadthFirstSearch(0, new CsrGraph(adjList), bfsActual));
+        assertEquals(bfsExpected, bfsActual);
+
+        adjList = new GraphAdjList(basicVertices6, basicEdges6);
+        bfsExpected = new LinkedList<>();
+        bfsActual = new LinkedList<>();
+        assertFalse(GraphAlgs.breadthFirstSearch(1, adjList, bfsExpected));
+        assertFalse(GraphAlgs.breadthFirstSearch(1, new CsrGraph(adjList), bfsActual));
+        assertEquals(bfsExpected, bfsActual);
+    }
+
+    @Test
+    public void testBfsWorkspace() {
+        BfsWorkspace workspace = new BfsWorkspace(2);
+
+        adjList = new GraphAdjList(basicVertices2, basicEdges2);
+        List<Integer> bfsExpected = new LinkedList<>();
+        assertTrue(GraphAlgs.breadthFirstSearch(0, adjList, bfsExpected));
+        assertTrue(GraphAlgs.breadthFirstSearch(0, new CsrGraph(adjList), workspace));
+        assertEquals(bfsExpected.size(), workspace.getVisitedCount());
+        for (int i = 0; i < bfsExpected.size(); i++) {
+            assertEquals((int) bfsExpected.get(i), workspace.getOrder()[i]);
+        }
+
+        adjList = new GraphAdjList(basicVertices6, basicEdges6);
+        assertFalse(GraphAlgs.breadthFirstSearch(3, new CsrGraph(adjList), workspace));
+        assertEquals(3, workspace.getVisitedCount());
+        assertEquals(3, workspace.getOrder()[0]);
+        assertEquals(1, workspace.getOrder()[1]);
+        assertEquals(5, workspace.getOrder()[2]);
+        assertTrue(workspace.isVisited(5));
+        assertFalse(workspace.isVisited(0));
+    }
+
+    @Test
+    public void testDirectionOptimizingBfs() {
+        adjList = new GraphAdjList(basicVertices5, basicEdges5);
+        BfsTree tree = GraphAlgs.directionOptimizingBfs(0, adjList);
+        assertTrue(tree.isConnected());
+        assertEquals(0, tree.getLevel(0));
+        assertEquals(-1, tree.getParent(0));
+        for (int v = 1; v < 5; v++) {
+            assertEquals(1, tree.getLevel(v));
+            assertEquals(0, tree.getParent(v));
+        }
+
+        adjList = new GraphAdjList(basicVertices6, basicEdges6);
+        tree = GraphAlgs.directionOptimizingBfs(0, adjList);
+        assertFalse(tree.isConnected());
+        assertEquals(3, tree.getReachedCount());
+        assertEquals(2, tree.getLevel(2));
+        assertEquals(4, tree.getParent(2));
+        assertFalse(tree.isReachable(1));
+        assertEquals(-1, tree.getLevel(5));
+    }
+
+    @Test
+    public void testDirectionOptimizingBfsDirected() {
+        Set<Edge> edges = new LinkedHashSet<>();
+        for (int v = 1; v < 40; v++) {
+            edges.add(new Edge(0, v, 1, true));
+            edges.add(new Edge(v, (v % 39) + 1, 1, true));
+        }
+        edges.add(new Edge(39, 40, 1, true));
+        edges.add(new Edge(41, 0, 1, true));
+        adjList = new GraphAdjList(vertices(42), edges);
+        BfsTree tree = GraphAlgs.directionOptimizingBfs(0, adjList);
+
+        List<Integer> bfsExpected = new LinkedList<>();
+        GraphAlgs.breadthFirstSearch(0, adjList, bfsExpected);
+        assertEquals(bfsExpected.size(), tree.getReachedCount());
+        for (int v = 1; v < 40; v++) {
+            assertEquals(1, tree.getLevel(v));
+        }
+        assertEquals(2, tree.getLevel(40));
+        assertEquals(39, tree.getParent(40));
+        assertFalse(tree.isReachable(41));
+    }
+
+    @Test
+    public void testParallelBreadthFirstSearch() {
+        Set<Edge> edges = new LinkedHashSet<>();
+        for (int v = 0; v < 2000; v++) {
+            edges.add(new Edge(v, (v * 7 + 3) % 2000, 1, false));
+            edges.add(new Edge(v, (v * 13 + 11) % 2000, 1, false));
+        }
+        adjList = new GraphAdjList(vertices(2001), edges);
+        CsrGraph graph = new CsrGraph(adjList);
+        List<Integer> bfsExpected = new LinkedList<>();
+        GraphAlgs.breadthFirstSearch(5, adjList, bfsExpected);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        BfsTree deterministic = GraphAlgs.parallelBreadthFirstSearch(5, graph, pool, true);
+        BfsTree racy = GraphAlgs.parallelBreadthFirstSearch(5, graph, pool, false);
+        BfsTree sequential = GraphAlgs.directionOptimizingBfs(5, graph);
+        pool.shutdown();
+
+        assertFalse(deterministic.isConnected());
+        assertEquals(bfsExpected.size(), deterministic.getReachedCount());
+        for (int i = 0; i < bfsExpected.size(); i++) {
+            assertEquals((int) bfsExpected.get(i), deterministic.getOrder()[i]);
+        }
+        assertEquals(bfsExpected.size(), racy.getReachedCount());
+        for (int v = 0; v <= 2000; v++) {
+            assertEquals(sequential.getLevel(v), deterministic.getLevel(v));
+            assertEquals(sequential.getLevel(v), racy.getLevel(v));
+        }
+        assertFalse(racy.isReachable(2000));
+    }
+
+    @Test
+    public void testCsrShortPathDijk() {
+        adjList = new GraphAdjList(basicVertices, basicEdges);
+        assertEquals(GraphAlgs.shortPathDijk(0, adjList),
+                GraphAlgs.shortPathDijk(0, new CsrGraph(adjList)));
+
+        adjList = new GraphAdjList(basicVertices6, basicEdges6);
+        assertEquals(GraphAlgs.shortPathDijk(0, adjList),
+                GraphAlgs.shortPathDijk(0, new CsrGraph(adjList)));
+    }
+
+    @Test
+    public void testIndexedDaryHeap() {
+        IndexedDaryHeap heap = new IndexedDaryHeap(10, 3);
+        for (int i = 0; i < 10; i++) {
+            heap.insert(i, 100 - i);
+        }
+        heap.decreaseKey(4, 5);
+        heap.decreaseKey(7, 1);
+        assertEquals(10, heap.size());
+        assertEquals(1, heap.peekKey());
+        assertEquals(7, heap.poll());
+        assertEquals(4, heap.poll());
+        assertFalse(heap.contains(4));
+        assertEquals(91, heap.getKey(9));
+        assertEquals(9, heap.poll());
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        heap.insert(4, 0);
+        assertEquals(4, heap.poll());
+    }
+
+    @Test
+    public void testCsrShortPathDijkArity() {
+        adjList = new GraphAdjList(basicVertices2, basicEdges2);
+        CsrGraph graph = new CsrGraph(adjList);
+        Map<Integer, Integer> dijkExpected = GraphAlgs.shortPathDijk(0, adjList);
+        for (int arity = 2; arity <= 8; arity++) {
+            assertEquals(dijkExpected, GraphAlgs.shortPathDijk(0, graph, arity));
+        }
+    }
+
+    @Test
+    public void testBucketQueue() {
+        BucketQueue queue = new BucketQueue(6, 3);
+        queue.insert(0, 10);
+        queue.insert(1, 13);
+        queue.insert(2, 12);
+        queue.decreaseKey(1, 11);
+        assertEquals(10, queue.peekKey());
+        assertEquals(0, queue.poll());
+        assertEquals(11, queue.peekKey());
+        assertEquals(1, queue.poll());
+        queue.insert(3, 14);
+        assertEquals(2, queue.poll());
+        assertEquals(3, queue.poll());
+        assertTrue(queue.isEmpty());
+        assertFalse(queue.contains(3));
+    }
+
+    @Test
+    public void testCsrShortPathDijkBuckets() {
+        Set<Edge> edges = new LinkedHashSet<>();
+        for (int v = 0; v < 300; v++) {
+            edges.add(new Edge(v, (v * 31 + 7) % 300, v % 5, false));
+            edges.add(new Edge(v, (v * 17 + 1) % 300, (v * 3) % 11, true));
+        }
+        adjList = new GraphAdjList(vertices(300), edges);
+        CsrGraph graph = new CsrGraph(adjList);
+        assertEquals(0, graph.getMinWeight());
+        assertEquals(10, graph.getMaxWeight());
+        for (int start = 0; start < 300; start += 37) {
+            Map<Integer, Integer> dijkExpected = GraphAlgs.shortPathDijk(start, adjList);
+            assertEquals(dijkExpected, GraphAlgs.shortPathDijk(start, graph));
+            assertEquals(dijkExpected, GraphAlgs.shortPathDijk(start, graph, 2));
+        }
+    }
+
+    @Test
+    public void testShortPathDeltaStepping() {
+        Set<Edge> edges = new LinkedHashSet<>();
+        for (int v = 0; v < 3000; v++) {
+            edges.add(new Edge(v, (v * 31 + 7) % 3000, 1 + (v * 7) % 50, false));
+            edges.add(new Edge(v, (v * 17 + 1) % 3000, 1 + (v * 13) % 500, false));
+        }
+        CsrGraph graph = new CsrGraph(3001, edges);
+        Map<Integer, Integer> dijkExpected = GraphAlgs.shortPathDijk(3, graph);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int delta : new int[] {1, 10, 1000}) {
+            assertEquals(dijkExpected,
+                    GraphAlgs.shortPathDeltaStepping(3, graph, delta, pool));
+        }
+        pool.shutdown();
+        assertEquals(dijkExpected, GraphAlgs.shortPathDeltaStepping(3, graph));
+        assertEquals(Integer.MAX_VALUE, (int) dijkExpected.get(3000));
+    }
+
+    @Test
+    public void testShortPathDeltaSteppingSmallDelta() {
+        // distances reach 10^9 with delta 1, so only a cyclic bucket array
+        // of about maxWeight / delta buckets keeps this small and fast
+        Set<Edge> edges = new LinkedHashSet<>();
+        for (int v = 0; v + 1 < 5000; v++) {
+            edges.add(new Edge(v, v + 1, 100000 + (v * 7919) % 100000, true));
+            edges.add(new Edge(v + 1, v / 2, 150000 + (v * 13) % 50000, true));
+        }
+        CsrGraph graph = new CsrGraph(5000, edges);
+        Map<Integer, Integer> dijkExpected = GraphAlgs.shortPathDijk(0, graph);
+        assertTrue(dijkExpected.get(4999) > 100000000);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            for (int delta : new int[] {1, 97, 150000}) {
+                assertEquals(dijkExpected,
+                        GraphAlgs.shortPathDeltaStepping(0, graph, delta, pool));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testShortestPath() {
+        adjList = new GraphAdjList(basicVertices, basicEdges);
+        ShortestPath path = GraphAlgs.shortestPath(0, 4, adjList);
+        assertEquals(9, path.getDistance());
+        assertArrayEquals(new int[] {0, 2, 4}, path.getVertices());
+        assertEquals(0, GraphAlgs.shortestPath(5, 5, adjList).getDistance());
+        assertArrayEquals(new int[] {5}, GraphAlgs.shortestPath(5, 5, adjList).getVertices());
+
+        adjList = new GraphAdjList(basicVertices6, basicEdges6);
+        path = GraphAlgs.shortestPath(0, 1, adjList);
+        assertFalse(path.hasPath());
+        assertEquals(Integer.MAX_VALUE, path.getDistance());
+        assertEquals(0, path.getVertices().length);
+    }
+
+    @Test
+    public void testShortestPathMatchesDijkstra() {
+        CsrGraph graph = pseudoRandomDigraph();
+        for (int source = 0; source < 61; source += 4) {
+            Map<Integer, Integer> dijkExpected = GraphAlgs.shortPathDijk(source, graph);
+            for (int target = 0; target < 61; target++) {
+                ShortestPath path = GraphAlgs.shortestPath(source, target, graph);
+                assertEquals((int) dijkExpected.get(target), path.getDistance());
+                assertPath(graph, path);
+            }
+        }
+    }
+
+    @Test
+    public void testShortPathTree() {
+        adjList = new GraphAdjList(basicVertices, basicEdges);
+        ShortestPathTree tree = GraphAlgs.shortPathTree(0, adjList);
+        Map<Integer, Integer> dijkExpected = GraphAlgs.shortPathDijk(0, adjList);
+        assertEquals(dijkExpected, tree.asMap());
+        assertEquals(tree.asMap(), dijkExpected);
+        assertEquals(dijkExpected, GraphAlgs.shortPathDijk(0, new CsrGraph(adjList)));
+        int[] out = new int[7];
+        assertEquals(3, tree.pathTo(4, out));
+        assertArrayEquals(new int[] {0, 2, 4}, Arrays.copyOf(out, 3));
+        assertArrayEquals(new int[] {0, 3, 6}, tree.pathTo(6));
+        assertArrayEquals(new int[] {0}, tree.pathTo(0));
+        assertEquals(-1, tree.getPredecessor(0));
+
+        adjList = new GraphAdjList(basicVertices6, basicEdges6);
+        tree = GraphAlgs.shortPathTree(3, adjList);
+        assertFalse(tree.isReachable(0));
+        assertEquals(Integer.MAX_VALUE, tree.distanceTo(0));
+        assertEquals(0, tree.pathTo(0, new int[0]));
+        assertEquals(GraphAlgs.shortPathDijk(3, adjList), tree.asMap());
+    }
+
+    @Test
+    public void testShortPathDijkBatch() {
+        CsrGraph graph = pseudoRandomDigraph();
+        int[] sources = new int[100];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = (i * 13) % 61;
+        }
+        Map<Integer, int[]> results = new ConcurrentHashMap<>();
+        AtomicInteger calls = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        GraphAlgs.shortPathDijkBatch(sources, graph, tree -> {
+            calls.incrementAndGet();
+            int[] copy = new int[tree.getVertexCount()];
+            for (int v = 0; v < copy.length; v++) {
+                copy[v] = tree.distanceTo(v);
+                if (tree.isReachable(v)) {
+                    assertEquals(copy[v], distanceAlong(graph, tree.pathTo(v)));
+                }
+            }
+            results.put(tree.getSource(), copy);
+        }, pool);
+        pool.shutdown();
+        assertEquals(sources.length, calls.get());
+        assertEquals(61, results.size());
+        for (int source = 0; source < 61; source++) {
+            assertEquals(GraphAlgs.shortPathDijk(source, graph),
+                    ShortestPathTree.distanceMap(results.get(source)));
+        }
+    }
+
+    @Test
+    public void testShortestPathCache() throws InterruptedException {
+        adjList = new GraphAdjList(basicVertices, basicEdges);
+        ShortestPathCache cache = new ShortestPathCache(2 * (8 * 7 + 160));
+        ShortestPathTree tree = cache.get(adjList, 0, 0);
+        assertEquals(GraphAlgs.shortPathDijk(0, adjList), tree.asMap());
+        assertTrue(tree == cache.get(adjList, 0, 0));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        assertFalse(tree == cache.get(adjList, 1, 0));
+        cache.get(adjList, 1, 3);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(3, cache.getMissCount());
+        cache.get(adjList, 0, 0);
+        assertEquals(4, cache.getMissCount());
+
+        cache.invalidate(adjList);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeightBytes());
+
+        CsrGraph graph = new CsrGraph(adjList);
+        ShortestPathTree[] results = new ShortestPathTree[8];
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> results[index] = cache.get(graph, 7, 5));
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(5, cache.getMissCount());
+        for (ShortestPathTree result : results) {
+            assertTrue(result == results[0]);
+        }
+    }
+
+    @Test
+    public void testDynamicShortestPaths() {
+        for (boolean directed : new boolean[] {true, false}) {
+            Set<Edge> edges = new LinkedHashSet<>();
+            for (int v = 0; v < 40; v++) {
+                edges.add(new Edge(v, (v * 7 + 3) % 40, 20 + (v * 5) % 9, directed));
+                edges.add(new Edge(v, (v + 1) % 30, 30, directed));
+            }
+            DynamicShortestPaths paths = new DynamicShortestPaths(0,
+                    new CsrGraph(41, edges));
+            for (int step = 0; step < 60; step++) {
+                int u = (step * 17) % 41;
+                int v = (step * 29 + 5) % 41;
+                if (step % 2 == 0) {
+                    paths.addEdge(u, v, 10 + step % 13);
+                    edges.add(new Edge(u, v, 10 + step % 13, directed));
+                } else {
+                    u = step / 2;
+                    v = (u * 7 + 3) % 40;
+                    paths.decreaseWeight(u, v, 9 - step / 7);
+                    edges.add(new Edge(u, v, 9 - step / 7, directed));
+                }
+                assertEquals(GraphAlgs.shortPathDijk(0, new CsrGraph(41, edges)),
+                        paths.asMap());
+            }
+            ShortestPathTree tree = paths.asTree();
+            for (int v = 0; v < 41; v++) {
+                if (tree.isReachable(v)) {
+                    assertEquals(tree.distanceTo(v), distanceAlong(
+                            new CsrGraph(41, edges), tree.pathTo(v)));
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDynamicShortestPathsIncrease() {
+        adjList = new GraphAdjList(basicVertices, basicEdges);
+        new DynamicShortestPaths(0, adjList).decreaseWeight(0, 1, 9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortPathTreeSmallArray() {
+        adjList = new GraphAdjList(basicVertices, basicEdges);
+        GraphAlgs.shortPathTree(0, adjList).pathTo(4, new int[2]);
+    }
+
+    @Test
+    public void testShortestPathAStarWithLandmarks() throws IOException {
+        CsrGraph graph = pseudoRandomDigraph();
+        for (LandmarkTable.Selection selection : LandmarkTable.Selection.values()) {
+            LandmarkTable table = LandmarkTable.build(graph, 4, selection, 7);
+            assertEquals(4, new HashSet<>(toList(table.getLandmarks())).size());
+            for (int source = 0; source < 61; source += 5) {
+                Map<Integer, Integer> dijkExpected = GraphAlgs.shortPathDijk(source, graph);
+                for (int target = 0; target < 61; target++) {
+                    assertTrue(table.estimate(source, target) <= dijkExpected.get(target));
+                    ShortestPath path = GraphAlgs.shortestPathAStar(source, target,
+                            graph, table);
+                    assertEquals((int) dijkExpected.get(target), path.getDistance());
+                    assertPath(graph, path);
+                }
+            }
+        }
+
+        LandmarkTable table = LandmarkTable.build(graph, 3,
+                LandmarkTable.Selection.FARTHEST);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.write(out);
+        LandmarkTable copy = LandmarkTable.read(new ByteArrayInputStream(out.toByteArray()));
+        assertArrayEquals(table.getLandmarks(), copy.getLandmarks());
+        for (int v = 0; v < 61; v++) {
+            assertEquals(table.distanceTo(2, v), copy.distanceTo(2, v));
+            assertEquals(table.estimate(v, 17), copy.estimate(v, 17));
+        }
+    }
+
+    @Test
+    public void testLandmarkTableReadLeavesStreamUsable() throws IOException {
+        LandmarkTable table = LandmarkTable.build(pseudoRandomDigraph(), 2,
+                LandmarkTable.Selection.FARTHEST);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.write(out);
+        out.write(42);
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        LandmarkTable copy = LandmarkTable.read(in);
+        assertArrayEquals(table.getLandmarks(), copy.getLandmarks());
+        assertEquals(42, in.read());
+        assertEquals(-1, in.read());
+    }
+
+    @Test(expected = IOException.class)
+    public void testLandmarkTableReadOverflowingHeader() throws IOException {
+        // 65536 landmarks over 65536 vertices: 2^32 distances overflow an int
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(0x4C4D4B31);
+        data.writeInt(65536);
+        data.writeBoolean(false);
+        data.writeInt(65536);
+        for (int i = 0; i < 65536; i++) {
+            data.writeInt(i);
+        }
+        LandmarkTable.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    public void testContractionHierarchy() {
+        CsrGraph graph = pseudoRandomDigraph();
+        ContractionHierarchy hierarchy = new ContractionHierarchy(graph);
+        for (int source = 0; source < 61; source += 3) {
+            Map<Integer, Integer> dijkExpected = GraphAlgs.shortPathDijk(source, graph);
+            for (int target = 0; target < 61; target++) {
+                ShortestPath path = hierarchy.shortestPath(source, target);
+                assertEquals((int) dijkExpected.get(target), path.getDistance());
+                assertEquals(path.getDistance(), hierarchy.distance(source, target));
+                assertPath(graph, path);
+            }
+        }
+
+        adjList = new GraphAdjList(basicVertices, basicEdges);
+        hierarchy = new ContractionHierarchy(adjList);
+        Map<Integer, Integer> dijkExpected = GraphAlgs.shortPathDijk(0, adjList);
+        for (int target = 0; target < 7; target++) {
+            assertEquals((int) dijkExpected.get(target), hierarchy.distance(0, target));
+        }
+        assertArrayEquals(new int[] {0, 2, 4}, hierarchy.shortestPath(0, 4).getVertices());
+    }
+
+    /**
+     * Copies an int array into a list.
+     *
+     * @param array the array to copy
+     * @return the ints of the array, in order
+     */
+    private List<Integer> toList(int[] array) {
+        List<Integer> list = new LinkedList<>();
+        for (int x : array) {
+            list.add(x);
+        }
+        return list;
+    }
+
+    /**
+     * Checks that the vertices of a path go from its source to its target
+     * along edges of the graph that add up to its distance.
+     *
+     * @param graph the graph the path was found in
+     * @param path the path to check
+     */
+    private void assertPath(CsrGraph graph, ShortestPath path) {
+        int[] vertices = path.getVertices();
+        if (!path.hasPath()) {
+            return;
+        }
+        assertEquals(path.getSource(), vertices[0]);
+        assertEquals(path.getTarget(), vertices[vertices.length - 1]);
+        assertEquals(path.getDistance(), distanceAlong(graph, vertices));
+    }
+
+    /**
+     * Adds up the lightest edge between every two consecutive vertices of
+     * a path, checking that there is one.
+     *
+     * @param graph the graph the path is in
+     * @param path the vertices of the path
+     * @return the length of the path
+     */
+    private long distanceAlong(CsrGraph graph, int[] path) {
+        long length = 0;
+        for (int k = 0; k + 1 < path.length; k++) {
+            int best = Integer.MAX_VALUE;
+            for (int i = graph.getOffsets()[path[k]];
+                    i < graph.getOffsets()[path[k] + 1]; i++) {
+                if (graph.getTargets()[i] == path[k + 1]) {
+                    best = Math.min(best, graph.getWeights()[i]);
+                }
+            }
+            assertTrue(best != Integer.MAX_VALUE);
+            length += best;
+        }
+        return length;
+    }
+
+    /**
+     * Creates a directed graph of 61 vertices in which each of the first 60
+     * has three outgoing edges with small weights, and vertex 60 has none.
+     *
+     * @return the graph in CSR format
+     */
+    private CsrGraph pseudoRandomDigraph() {
+        Set<Edge> edges = new LinkedHashSet<>();
+        for (int v = 0; v < 60; v++) {
+            edges.add(new Edge(v, (v * 7 + 3) % 60, 1 + (v * 5) % 9, true));
+            edges.add(new Edge(v, (v * 11 + 5) % 60, 1 + (v * 3) % 7, true));
+            edges.add(new Edge(v, (v + 1) % 50, 4, true));
+        }
+        return new CsrGraph(61, edges);
+    }
+
+    /**
+     * Creates an undirected graph of 90 vertices in which each of the first
+     * 80 has three edges, all of different weights, and the last 10 have
+     * none, so that its minimum spanning forest is unique.
+     *
+     * @return the graph in adjacency list format
+     */
+    private GraphAdjList pseudoRandomGraph() {
+        Set<Edge> edges = new LinkedHashSet<>();
+        for (int v = 0; v < 80; v++) {
+            edges.add(new Edge(v, (v * 7 + 3) % 80, 1000 + v, false));
+            edges.add(new Edge(v, (v * 13 + 1) % 80, 2000 + v, false));
+            edges.add(new Edge(v, (v + 1) % 60, 3000 + v, false));
+        }
+        return new GraphAdjList(vertices(90), edges);
+    }
+
+    @Test
+    public void testCsrMSTPrims() {
+        adjList = new GraphAdjList(basicVertices, basicEdges);
+        assertEqualsSet(GraphAlgs.mstPrim(adjList),
+                GraphAlgs.mstPrim(new CsrGraph(adjList)));
+
+        adjList = new GraphAdjList(basicVertices6, basicEdges6);
+        assertEqualsSet(GraphAlgs.mstPrim(adjList),
+                GraphAlgs.mstPrim(new CsrGraph(adjList)));
+
+        adjList = new GraphAdjList(basicVertices3, basicEdges3);
+        assertEqualsSet(GraphAlgs.mstPrim(adjList),
+                GraphAlgs.mstPrim(new CsrGraph(adjList)));
+
+        adjList = new GraphAdjList(basicVertices5, basicEdges5);
+        assertEqualsSet(GraphAlgs.mstPrim(adjList),
+                GraphAlgs.mstPrim(new CsrGraph(adjList)));
+
+        adjList = pseudoRandomGraph();
+        assertEqualsSet(GraphAlgs.mstPrim(adjList),
+                GraphAlgs.mstPrim(new CsrGraph(adjList)));
+    }
+
+    @Test
+    public void testCsrMSTKruskals() {
+        adjList = new GraphAdjList(basicVertices2, basicEdges2);
+        assertEqualsSet(GraphAlgs.mstKruskal(adjList),
+                GraphAlgs.mstKruskal(new CsrGraph(adjList)));
+
+        adjList = new GraphAdjList(studentVerticesFour, studentEdgesFour);
+        assertEqualsSet(GraphAlgs.mstKruskal(adjList),
+                GraphAlgs.mstKruskal(new CsrGraph(adjList)));
+
+        adjList = new GraphAdjList(basicVertices6, basicEdges6);
+        assertEqualsSet(GraphAlgs.mstKruskal(adjList),
+                GraphAlgs.mstKruskal(new CsrGraph(adjList)));
+
+        adjList = new GraphAdjList(basicVertices3, basicEdges3);
+        assertEquals(0, GraphAlgs.mstKruskal(new CsrGraph(adjList)).size());
+
+        adjList = pseudoRandomGraph();
+        Set<Edge> expected = GraphAlgs.mstKruskal(adjList);
+        assertEqualsSet(expected, GraphAlgs.mstKruskal(new CsrGraph(adjList)));
+        assertEqualsSet(expected, GraphAlgs.mstPrim(new CsrGraph(adjList)));
+    }
+
+    @Test
+    public void testCsrMSTFilterKruskal() {
+        adjList = new GraphAdjList(basicVertices2, basicEdges2);
+        CsrGraph csr = new CsrGraph(adjList);
+        assertEqualsSet(GraphAlgs.mstKruskal(csr), GraphAlgs.mstFilterKruskal(csr));
+
+        adjList = new GraphAdjList(basicVertices6, basicEdges6);
+        csr = new CsrGraph(adjList);
+        assertEqualsSet(GraphAlgs.mstKruskal(csr), GraphAlgs.mstFilterKruskal(csr));
+
+        adjList = new GraphAdjList(basicVertices3, basicEdges3);
+        assertEquals(0, GraphAlgs.mstFilterKruskal(new CsrGraph(adjList)).size());
+
+        adjList = pseudoRandomGraph();
+        assertEqualsSet(GraphAlgs.mstKruskal(adjList),
+                GraphAlgs.mstFilterKruskal(new CsrGraph(adjList)));
+
+        // enough edges, with many equal weights, to split and filter in
+        // parallel; two components
+        Set<Edge> edges = new LinkedHashSet<>();
+        for (int v = 0; v < 20000; v++) {
+            int half = v < 10000 ? 0 : 10000;
+            for (int k = 1; k <= 5; k++) {
+                int w = half + (int) ((v * 7919L + k * 104729L) % 10000);
+                if (w != v) {
+                    edges.add(new Edge(v, w, (v * 31 + k * 17) % 50, false));
+                }
+            }
+        }
+        csr = new CsrGraph(20000, edges);
+        Set<Edge> expected = GraphAlgs.mstKruskal(csr);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEqualsSet(expected, GraphAlgs.mstFilterKruskal(csr, pool));
+        } finally {
+            pool.shutdown();
+        }
+        assertEqualsSet(expected, GraphAlgs.mstFilterKruskal(csr));
+    }
+
+    @Test
+    public void testCsrMSTBoruvka() {
+        adjList = new GraphAdjList(basicVertices2, basicEdges2);
+        CsrGraph csr = new CsrGraph(adjList);
+        assertEqualsSet(GraphAlgs.mstKruskal(csr), GraphAlgs.mstBoruvka(csr));
+
+        adjList = new GraphAdjList(studentVerticesFour, studentEdgesFour);
+        csr = new CsrGraph(adjList);
+        assertEqualsSet(GraphAlgs.mstKruskal(csr), GraphAlgs.mstBoruvka(csr));
+
+        adjList = new GraphAdjList(basicVertices3, basicEdges3);
+        assertEquals(0, GraphAlgs.mstBoruvka(new CsrGraph(adjList)).size());
+
+        // equal weights everywhere, two components
+        Set<Edge> edges = new LinkedHashSet<>();
+        for (int v = 0; v < 3000; v++) {
+            int half = v < 1500 ? 0 : 1500;
+            edges.add(new Edge(v, half + (v * 37 + 11) % 1500, 5, false));
+            edges.add(new Edge(v, half + (v * 53 + 7) % 1500, 5, false));
+            edges.add(new Edge(v, half + (v + 1) % 1500, 3 + v % 3, false));
+        }
+        csr = new CsrGraph(3000, edges);
+        Set<Edge> expected = GraphAlgs.mstKruskal(csr);
+        assertEquals(2998, expected.size());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int run = 0; run < 5; run++) {
+                assertEqualsSet(expected, GraphAlgs.mstBoruvka(csr, pool));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testIntDisjointSet() {
+        IntDisjointSet set = new IntDisjointSet(6);
+        assertEquals(6, set.componentCount());
+        assertTrue(set.union(0, 1));
+        assertTrue(set.union(2, 1));
+        assertTrue(set.union(4, 5));
+        assertFalse(set.union(0, 2));
+        assertTrue(set.sameSet(0, 2));
+        assertFalse(set.sameSet(2, 4));
+        assertEquals(3, set.componentCount());
+        assertEquals(3, set.componentSize(1));
+        assertEquals(2, set.componentSize(5));
+        assertEquals(1, set.componentSize(3));
+
+        int n = 1 << 20;
+        IntDisjointSet chain = new IntDisjointSet(n);
+        for (int v = 1; v < n; v++) {
+            chain.union(v - 1, v);
+        }
+        assertEquals(1, chain.componentCount());
+        assertEquals(n, chain.componentSize(n - 1));
+        assertEquals(chain.find(0), chain.find(n - 1));
+    }
+
+    @Test
+    public void testConcurrentDisjointSet() throws InterruptedException {
+        ConcurrentDisjointSet set = new ConcurrentDisjointSet(6);
+        assertTrue(set.union(0, 1));
+        assertTrue(set.union(4, 5));
+        assertFalse(set.union(1, 0));
+        assertTrue(set.sameSet(0, 1));
+        assertFalse(set.sameSet(1, 4));
+        assertEquals(set.find(4), set.find(5));
+
+        int n = 1 << 14;
+        ConcurrentDisjointSet shared = new ConcurrentDisjointSet(n);
+        AtomicInteger joined = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i + 1 < n; i++) {
+                    int v = (i * 4 + offset) % (n - 1);
+                    if (shared.union(v, v + 1)) {
+                        joined.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(n - 1, joined.get());
+        for (int v = 0; v < n; v++) {
+            assertTrue(shared.sameSet(0, v));
+        }
+    }
+
+    @Test
+    public void testConcurrentDisjointSetContention() {
+        int n = 4096;
+        Random random = new Random(3);
+        int[][] pairs = new int[3 * n][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new int[] {random.nextInt(n), random.nextInt(n)};
+        }
+        IntDisjointSet expected = new IntDisjointSet(n);
+        for (int[] pair : pairs) {
+            expected.union(pair[0], pair[1]);
+        }
+        ConcurrentDisjointSet[] sets = {new ConcurrentDisjointSet(n),
+            new ConcurrentDisjointSet(n, 5)};
+        for (ConcurrentDisjointSet set : sets) {
+            // every thread tries every union, starting at a different pair
+            AtomicInteger joined = new AtomicInteger();
+            GraphAlgsBenchmark.inParallel(4, t -> {
+                for (int i = 0; i < pairs.length; i++) {
+                    int[] pair = pairs[(i + t * pairs.length / 4) % pairs.length];
+                    if (set.union(pair[0], pair[1])) {
+                        joined.incrementAndGet();
+                    }
+                }
+            });
+            assertEquals(n - expected.componentCount(), joined.get());
+            for (int v = 0; v < n; v++) {
+                assertEquals(expected.sameSet(0, v), set.sameSet(0, v));
+                assertEquals(set.find(v), set.find(set.find(v)));
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentDisjointSetSameSetNeverUndone() {
+        int n = 1 << 12;
+        ConcurrentDisjointSet set = new ConcurrentDisjointSet(n, 9);
+        AtomicInteger violations = new AtomicInteger();
+        GraphAlgsBenchmark.inParallel(4, t -> {
+            if (t < 2) {
+                // writers join the path 0 - 1 - ... - n - 1 from both ends
+                for (int i = 0; i + 1 < n; i++) {
+                    int v = t == 0 ? i : n - 2 - i;
+                    set.union(v, v + 1);
+                }
+                return;
+            }
+            // readers check that once two vertices are together they stay so
+            boolean[] seen = new boolean[n];
+            for (int round = 0; round < 20; round++) {
+                for (int v = 0; v < n; v += 7) {
+                    boolean same = set.sameSet(v, n - 1 - v);
+                    if (seen[v] && !same) {
+                        violations.incrementAndGet();
+                    }
+                    seen[v] |= same;
+                }
+            }
+        });
+        assertEquals(0, violations.get());
+        for (int v = 0; v < n; v++) {
+            assertTrue(set.sameSet(0, v));
+        }
+    }
+
+    @Test
+    public void testInParallelRethrowsWorkerFailure() {
+        AtomicInteger finished = new AtomicInteger();
+        try {
+            GraphAlgsBenchmark.inParallel(3, t -> {
+                if (t == 1) {
+                    throw new IllegalStateException("worker " + t);
+                }
+                finished.incrementAndGet();
+            });
+            fail("inParallel should have thrown");
+        } catch (IllegalStateException e) {
+            assertEquals("worker 1", e.getMessage());
+            assertEquals(2, finished.get());
+        }
+    }
+
+    @Test
+    public void testStreamingConnectivity() {
+        StreamingConnectivity stream = new StreamingConnectivity();
+        assertEquals(0, stream.componentCount());
+        assertTrue(stream.addEdge(3, 40));
+        assertFalse(stream.addEdge(40, 3));
+        stream.addVertex(7);
+        assertEquals(3, stream.getVertexCount());
+        assertEquals(2, stream.componentCount());
+        assertTrue(stream.connected(40, 3));
+        assertFalse(stream.connected(3, 7));
+        assertFalse(stream.connected(3, 1000));
+        assertEquals(0, stream.componentSize(1000));
+        assertEquals(2, stream.componentSize(3));
+
+        Set<Edge> batch = new LinkedHashSet<>();
+        batch.add(new Edge(7, 3, 1, false));
+        batch.add(new Edge(100, 101, 1, true));
+        assertEquals(2, stream.addEdges(batch));
+        assertEquals(2, stream.componentCount());
+        assertEquals(3, stream.componentSize(40));
+        assertEquals(4, stream.getEdgeCount());
+
+        // every answer agrees with the union-find of all edges so far
+        StreamingConnectivity bounded = new StreamingConnectivity(500);
+        assertEquals(500, bounded.componentCount());
+        IntDisjointSet expected = new IntDisjointSet(500);
+        Random random = new Random(41);
+        for (int i = 0; i < 400; i++) {
+            int u = random.nextInt(500);
+            int v = random.nextInt(500);
+            assertEquals(expected.union(u, v), bounded.addEdge(u, v));
+            assertEquals(expected.componentCount(), bounded.componentCount());
+            assertEquals(expected.componentSize(u), bounded.componentSize(v));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStreamingConnectivityBoundedRange() {
+        new StreamingConnectivity(10).addEdge(3, 10);
+    }
+
+    @Test
+    public void testStreamingConnectivityRejectedEdgeChangesNothing() {
+        StreamingConnectivity stream = new StreamingConnectivity();
+        stream.addEdge(0, 1);
+        try {
+            stream.addEdge(2, -1);
+            fail("addEdge should have thrown");
+        } catch (IllegalArgumentException e) {
+            assertEquals(2, stream.getVertexCount());
+            assertEquals(1, stream.componentCount());
+            assertEquals(1, stream.getEdgeCount());
+            assertEquals(0, stream.componentSize(2));
+        }
+        try {
+            stream.addVertex(Integer.MAX_VALUE);
+            fail("addVertex should have thrown");
+        } catch (IllegalArgumentException e) {
+            assertEquals(2, stream.getVertexCount());
+        }
+
+        stream = new StreamingConnectivity(3);
+        try {
+            stream.addEdge(0, 3);
+            fail("addEdge should have thrown");
+        } catch (IllegalArgumentException e) {
+            assertEquals(3, stream.componentCount());
+            assertEquals(0, stream.getEdgeCount());
+        }
+    }
+
+    @Test
+    public void testRollbackDisjointSet() {
+        RollbackDisjointSet set = new RollbackDisjointSet(5);
+        assertTrue(set.union(0, 1));
+        int checkpoint = set.checkpoint();
+        assertTrue(set.union(1, 2));
+        assertTrue(set.union(3, 4));
+        assertFalse(set.union(0, 2));
+        assertEquals(2, set.componentCount());
+        assertTrue(set.sameSet(0, 2));
+        set.rollback(checkpoint);
+        assertEquals(4, set.componentCount());
+        assertTrue(set.sameSet(0, 1));
+        assertFalse(set.sameSet(1, 2));
+        assertFalse(set.sameSet(3, 4));
+        set.rollback(0);
+        assertEquals(5, set.componentCount());
+        assertFalse(set.sameSet(0, 1));
+    }
+
+    @Test
+    public void testOfflineDynamicConnectivity() {
+        int n = 30;
+        OfflineDynamicConnectivity timeline = new OfflineDynamicConnectivity(n);
+        List<int[]> edges = new LinkedList<>();
+        List<Integer> expected = new LinkedList<>();
+        Random random = new Random(47);
+        for (int step = 0; step < 600; step++) {
+            int op = random.nextInt(4);
+            if (op == 0 || edges.isEmpty()) {
+                int[] edge = {random.nextInt(n), random.nextInt(n)};
+                edges.add(edge);
+                timeline.addEdge(edge[0], edge[1]);
+            } else if (op == 1) {
+                int[] edge = edges.remove(random.nextInt(edges.size()));
+                timeline.removeEdge(edge[1], edge[0]);
+            } else {
+                IntDisjointSet current = new IntDisjointSet(n);
+                for (int[] edge : edges) {
+                    current.union(edge[0], edge[1]);
+                }
+                int u = random.nextInt(n);
+                int v = random.nextInt(n);
+                if (op == 2) {
+                    assertEquals(expected.size(), timeline.queryConnected(u, v));
+                    expected.add(current.sameSet(u, v) ? 1 : 0);
+                } else {
+                    assertEquals(expected.size(), timeline.queryComponentCount());
+                    expected.add(current.componentCount());
+                }
+            }
+        }
+        int[] answers = timeline.solve();
+        assertEquals(expected.size(), answers.length);
+        int i = 0;
+        for (int answer : expected) {
+            assertEquals(answer, answers[i++]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfflineDynamicConnectivityRemoveMissing() {
+        OfflineDynamicConnectivity timeline = new OfflineDynamicConnectivity(4);
+        timeline.addEdge(0, 1);
+        timeline.removeEdge(1, 0);
+        timeline.removeEdge(0, 1);
+    }
+
+    @Test
+    public void testGraphAdjListMutation() {
+        Set<Edge> edges = new HashSet<>();
+        GraphAdjList graph = new GraphAdjList(vertices(3), edges);
+        assertEquals(0, graph.getVersion());
+        assertTrue(graph.addVertex(3));
+        assertFalse(graph.addVertex(3));
+        assertTrue(graph.addEdge(new Edge(0, 1, 4, false)));
+        assertFalse(graph.addEdge(new Edge(1, 0, 4, false)));
+        assertTrue(graph.addEdge(new Edge(1, 3, 2, false)));
+        assertEquals(3, graph.getVersion());
+        assertEquals(2, edges.size());
+        assertEquals(2, graph.getAdjacencyList().get(1).size());
+
+        ShortestPathCache cache = new ShortestPathCache(1 << 20);
+        assertEquals(6, cache.get(graph, 0).distanceTo(3));
+        assertTrue(graph.addEdge(new Edge(0, 3, 1, false)));
+        assertEquals(1, cache.get(graph, 0).distanceTo(3));
+        assertTrue(graph.removeEdge(new Edge(3, 0, 1, false)));
+        assertFalse(graph.removeEdge(new Edge(3, 0, 1, false)));
+        assertEquals(6, cache.get(graph, 0).distanceTo(3));
+        assertEquals(3, cache.getMissCount());
+
+        // self loops, parallel entries and mixed directions, checked
+        // against a graph built from scratch after every change
+        Random random = new Random(53);
+        List<Edge> present = new LinkedList<>();
+        edges = new HashSet<>();
+        graph = new GraphAdjList(vertices(6), edges);
+        for (int step = 0; step < 400; step++) {
+            if (random.nextInt(3) > 0 || present.isEmpty()) {
+                Edge e = new Edge(random.nextInt(6), random.nextInt(6),
+                        1 + random.nextInt(3), random.nextBoolean());
+                if (graph.addEdge(e)) {
+                    present.add(e);
+                }
+            } else {
+                Edge e = present.remove(random.nextInt(present.size()));
+                assertTrue(graph.removeEdge(e));
+            }
+            GraphAdjList fresh = new GraphAdjList(vertices(6), new HashSet<>(edges));
+            assertEquals(new HashSet<>(present), edges);
+            for (int v = 0; v < 6; v++) {
+                List<VertexDistancePair> actual = graph.getAdjacencyList().get(v);
+                List<VertexDistancePair> expected = fresh.getAdjacencyList().get(v);
+                assertEquals(expected.size(), actual.size());
+                int[] counts = new int[64];
+                for (VertexDistancePair pair : expected) {
+                    counts[pair.getVertex() * 8 + pair.getDistance()]++;
+                }
+                for (VertexDistancePair pair : actual) {
+                    counts[pair.getVertex() * 8 + pair.getDistance()]--;
+                }
+                assertArrayEquals(new int[64], counts);
+            }
+        }
+    }
+
+    @Test
+    public void testGraphAdjListRemoveEdgeAddedToSetDirectly() {
+        Set<Edge> edges = new HashSet<>();
+        GraphAdjList graph = new GraphAdjList(vertices(3), edges);
+        graph.addEdge(new Edge(0, 1, 2, false));
+        assertTrue(graph.removeEdge(new Edge(0, 1, 2, false)));
+        Edge bypass = new Edge(1, 2, 3, false);
+        edges.add(bypass);
+        try {
+            graph.removeEdge(bypass);
+            fail("removeEdge should have thrown");
+        } catch (IllegalStateException e) {
+            assertTrue(edges.contains(bypass));
+            assertEquals(2, graph.getVersion());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGraphAdjListAddEdgeMissingVertex() {
+        new GraphAdjList(vertices(3), new HashSet<>()).addEdge(new Edge(0, 3, 1, false));
+    }
+
     /**
      * Checks to see if two sets are the same.
      *
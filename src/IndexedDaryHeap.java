@@ -0,0 +1,257 @@
+import java.util.NoSuchElementException;
+
+/**
+ * A min heap of the ints 0 to {@code capacity - 1}, each with an int key,
+ * stored in a d-ary tree of int arrays. Every element is in the heap at most
+ * once, and its position in the tree is kept in an index so its key can be
+ * lowered in place (decrease-key) instead of inserting a duplicate.
+ *
+ * A wider tree is shallower, so decrease-key (which moves up) is cheaper
+ * while poll (which compares all children on the way down) costs more; 4
+ * children per node is a good fit for Dijkstra's algorithm.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class IndexedDaryHeap implements IndexedPriorityQueue {
+
+    /**
+     * The number of children per node used when none is given.
+     */
+    public static final int DEFAULT_ARITY = 4;
+
+    private final int arity;
+    private final int[] heap;
+    private final int[] keys;
+    private final int[] position;
+    private int size;
+
+    /**
+     * Creates an empty 4-ary heap for the elements 0 to
+     * {@code capacity - 1}.
+     *
+     * @throws IllegalArgumentException if capacity is negative
+     * @param capacity the number of elements
+     */
+    public IndexedDaryHeap(int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    /**
+     * Creates an empty heap for the elements 0 to {@code capacity - 1}.
+     *
+     * @throws IllegalArgumentException if capacity is negative or arity is
+     *  less than 2
+     * @param capacity the number of elements
+     * @param arity the number of children per node
+     */
+    public IndexedDaryHeap(int capacity, int arity) {
+        if (capacity < 0 || arity < 2) {
+            throw new IllegalArgumentException("Capacity is negative or arity is less than 2");
+        }
+        this.arity = arity;
+        heap = new int[capacity];
+        keys = new int[capacity];
+        position = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            position[i] = -1;
+        }
+    }
+
+    /**
+     * Gets the number of elements this heap can hold.
+     *
+     * @return the capacity of this heap
+     */
+    public int capacity() {
+        return heap.length;
+    }
+
+    /**
+     * Gets the number of elements in this heap.
+     *
+     * @return the number of elements in this heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets whether or not this heap is empty.
+     *
+     * @return true if this heap is empty, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets whether or not an element is in this heap.
+     *
+     * @param element the element to check
+     * @return true if the element is in this heap, false otherwise
+     */
+    @Override
+    public boolean contains(int element) {
+        return position[element] >= 0;
+    }
+
+    /**
+     * Gets the key of an element in this heap.
+     *
+     * @throws NoSuchElementException if the element is not in this heap
+     * @param element the element
+     * @return the key of the element
+     */
+    public int getKey(int element) {
+        if (position[element] < 0) {
+            throw new NoSuchElementException("Element is not in the heap: " + element);
+        }
+        return keys[element];
+    }
+
+    /**
+     * Adds an element that is not in the heap yet.
+     *
+     * @throws IllegalArgumentException if the element is already in the heap
+     * @param element the element to add
+     * @param key the key of the element
+     */
+    @Override
+    public void insert(int element, int key) {
+        if (position[element] >= 0) {
+            throw new IllegalArgumentException("Element is already in the heap: " + element);
+        }
+        keys[element] = key;
+        heap[size] = element;
+        position[element] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Lowers the key of an element that is in the heap.
+     *
+     * @throws NoSuchElementException if the element is not in the heap
+     * @throws IllegalArgumentException if the key is greater than the
+     *  element's current key
+     * @param element the element
+     * @param key the new key of the element
+     */
+    @Override
+    public void decreaseKey(int element, int key) {
+        if (position[element] < 0) {
+            throw new NoSuchElementException("Element is not in the heap: " + element);
+        }
+        if (key > keys[element]) {
+            throw new IllegalArgumentException("Key cannot be increased");
+        }
+        keys[element] = key;
+        siftUp(position[element]);
+    }
+
+    /**
+     * Gets the key of the element with the smallest key.
+     *
+     * @throws NoSuchElementException if the heap is empty
+     * @return the smallest key in the heap
+     */
+    @Override
+    public int peekKey() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return keys[heap[0]];
+    }
+
+    /**
+     * Removes the element with the smallest key. Call {@link #peekKey()}
+     * first to read that key.
+     *
+     * @throws NoSuchElementException if the heap is empty
+     * @return the element that had the smallest key
+     */
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        int min = heap[0];
+        position[min] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Removes every element from the heap. Only touches the elements that
+     * are in the heap, so clearing a nearly empty heap is cheap.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Moves the element at index i up until its parent's key is not larger.
+     *
+     * @param i the index in the heap array
+     */
+    private void siftUp(int i) {
+        int element = heap[i];
+        int key = keys[element];
+        while (i > 0) {
+            int parent = (i - 1) / arity;
+            int parentElement = heap[parent];
+            if (keys[parentElement] <= key) {
+                break;
+            }
+            heap[i] = parentElement;
+            position[parentElement] = i;
+            i = parent;
+        }
+        heap[i] = element;
+        position[element] = i;
+    }
+
+    /**
+     * Moves the element at index i down until no child has a smaller key.
+     *
+     * @param i the index in the heap array
+     */
+    private void siftDown(int i) {
+        int element = heap[i];
+        int key = keys[element];
+        while (true) {
+            int first = i * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + arity, size);
+            int best = first;
+            int bestKey = keys[heap[first]];
+            for (int c = first + 1; c < last; c++) {
+                int childKey = keys[heap[c]];
+                if (childKey < bestKey) {
+                    best = c;
+                    bestKey = childKey;
+                }
+            }
+            if (bestKey >= key) {
+                break;
+            }
+            heap[i] = heap[best];
+            position[heap[i]] = i;
+            i = best;
+        }
+        heap[i] = element;
+        position[element] = i;
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * A min priority queue of the ints 0 to {@code capacity - 1}, each with an
+ * int key, where every element is in the queue at most once and its key can
+ * be lowered in place. This is the queue Dijkstra's algorithm and Prim's
+ * algorithm need, and lets them run on whichever implementation suits the
+ * edge weights of the graph.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public interface IndexedPriorityQueue {
+
+    /**
+     * Gets whether or not this queue is empty.
+     *
+     * @return true if this queue is empty, false otherwise
+     */
+    boolean isEmpty();
+
+    /**
+     * Gets whether or not an element is in this queue.
+     *
+     * @param element the element to check
+     * @return true if the element is in this queue, false otherwise
+     */
+    boolean contains(int element);
+
+    /**
+     * Adds an element that is not in the queue yet.
+     *
+     * @param element the element to add
+     * @param key the key of the element
+     */
+    void insert(int element, int key);
+
+    /**
+     * Lowers the key of an element that is in the queue.
+     *
+     * @param element the element
+     * @param key the new key of the element
+     */
+    void decreaseKey(int element, int key);
+
+    /**
+     * Gets the key of the element with the smallest key.
+     *
+     * @return the smallest key in the queue
+     */
+    int peekKey();
+
+    /**
+     * Removes the element with the smallest key. Call {@link #peekKey()}
+     * first to read that key.
+     *
+     * @return the element that had the smallest key
+     */
+    int poll();
+
+    /**
+     * Removes every element from the queue.
+     */
+    void clear();
+}
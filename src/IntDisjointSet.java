@@ -0,0 +1,165 @@
+import java.util.Arrays;
+
+/**
+ * A disjoint set over the ints 0 to n - 1, kept in two int arrays instead of
+ * a map of nodes like {@link DisjointSet}. Finds halve the path iteratively,
+ * pointing every other element on the way at its grandparent, so long
+ * chains cannot overflow the stack, and unions hang the smaller set under
+ * the larger one. Nothing is allocated after construction.
+ *
+ * This class is not thread safe; see {@link ConcurrentDisjointSet}.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class IntDisjointSet {
+
+    private final int[] parent;
+    private final int[] size;
+    private int componentCount;
+
+    /**
+     * Creates a disjoint set with every int from 0 to n - 1 in its own set.
+     *
+     * @throws IllegalArgumentException if n is negative
+     * @param n the number of elements
+     */
+    public IntDisjointSet(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Size cannot be negative");
+        }
+        parent = new int[n];
+        size = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+            size[v] = 1;
+        }
+        componentCount = n;
+    }
+
+    /**
+     * Creates a copy of a disjoint set with more elements, each of the new
+     * ones in its own set.
+     *
+     * @param other the disjoint set to copy
+     * @param n the number of elements, at least other's
+     */
+    IntDisjointSet(IntDisjointSet other, int n) {
+        parent = Arrays.copyOf(other.parent, n);
+        size = Arrays.copyOf(other.size, n);
+        for (int v = other.parent.length; v < n; v++) {
+            parent[v] = v;
+            size[v] = 1;
+        }
+        componentCount = other.componentCount + n - other.parent.length;
+    }
+
+    /**
+     * Gets the number of elements.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return parent.length;
+    }
+
+    /**
+     * Finds the root of the set v is in, halving the path on the way.
+     *
+     * @throws IllegalArgumentException if v is not an element
+     * @param v the element
+     * @return the root of v
+     */
+    public int find(int v) {
+        check(v);
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * Finds the root of the set v is in without changing anything, so that
+     * many threads can call it at once while no thread unites sets.
+     *
+     * @param v the element
+     * @return the root of v
+     */
+    int root(int v) {
+        while (parent[v] != v) {
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * Unites the sets of two elements, hanging the smaller set under the
+     * root of the larger one.
+     *
+     * @throws IllegalArgumentException if a or b is not an element
+     * @param a the first element
+     * @param b the second element
+     * @return true if a and b were in different sets, false otherwise
+     */
+    public boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+        if (size[rootA] < size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        componentCount--;
+        return true;
+    }
+
+    /**
+     * Checks whether two elements are in the same set.
+     *
+     * @throws IllegalArgumentException if a or b is not an element
+     * @param a the first element
+     * @param b the second element
+     * @return true if a and b are in the same set
+     */
+    public boolean sameSet(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /**
+     * Gets the number of sets.
+     *
+     * @return the number of disjoint sets
+     */
+    public int componentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Gets the number of elements in the set v is in.
+     *
+     * @throws IllegalArgumentException if v is not an element
+     * @param v the element
+     * @return the size of the set of v
+     */
+    public int componentSize(int v) {
+        return size[find(v)];
+    }
+
+    /**
+     * Checks that an int is an element.
+     *
+     * @throws IllegalArgumentException if v is not an element
+     * @param v the int to check
+     */
+    private void check(int v) {
+        if (v < 0 || v >= parent.length) {
+            throw new IllegalArgumentException("Element is not in the set: " + v);
+        }
+    }
+}
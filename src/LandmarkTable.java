@@ -0,0 +1,411 @@
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Precomputed shortest distances between a few landmark vertices and every
+ * vertex of a graph, used as the heuristic of the ALT algorithm (A* with
+ * landmarks and the triangle inequality).
+ *
+ * For a landmark L, the triangle inequality gives two lower bounds on the
+ * distance from v to t: {@code d(L, t) - d(L, v)} and
+ * {@code d(v, L) - d(t, L)}. The estimate is the largest of these bounds
+ * over all landmarks, which is consistent, so it can be passed to
+ * {@link GraphAlgs#shortestPathAStar(int, int, CsrGraph, AStarHeuristic)}.
+ *
+ * Distances are kept in flat int arrays, landmark by landmark, and can be
+ * written to and read back from a stream so they only need to be computed
+ * once per graph.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class LandmarkTable implements AStarHeuristic {
+
+    /**
+     * How landmarks are picked.
+     */
+    public enum Selection {
+        /**
+         * Each landmark is the vertex farthest from the landmarks picked so
+         * far (the first one is the vertex farthest from a random vertex).
+         */
+        FARTHEST,
+
+        /**
+         * Each landmark is picked in the region the landmarks picked so far
+         * cover worst: in a shortest path tree from a random root, every
+         * vertex is weighted by how much its distance from the root exceeds
+         * the current lower bound, subtrees that already contain a landmark
+         * are dropped, and the landmark is the leaf reached by always
+         * walking to the heaviest subtree.
+         */
+        AVOID
+    }
+
+    /**
+     * Marks the start of a landmark table written to a stream.
+     */
+    private static final int MAGIC = 0x4C4D4B31;
+
+    private final int vertexCount;
+    private final boolean directed;
+    private final int[] landmarks;
+    private final int[] from;
+    private final int[] to;
+
+    /**
+     * Creates a LandmarkTable. The arrays are used directly, not copied.
+     *
+     * @param vertexCount the number of vertices of the graph
+     * @param directed whether or not the graph is directed
+     * @param landmarks the landmark vertices
+     * @param from the distance from every landmark to every vertex
+     * @param to the distance from every vertex to every landmark, the same
+     *        array as from if the graph is undirected
+     */
+    private LandmarkTable(int vertexCount, boolean directed, int[] landmarks,
+                          int[] from, int[] to) {
+        this.vertexCount = vertexCount;
+        this.directed = directed;
+        this.landmarks = landmarks;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Picks landmarks and computes their distances, using a random seed of
+     * 0. See {@link #build(CsrGraph, int, Selection, long)}.
+     *
+     * @throws IllegalArgumentException if any input is null, or count is
+     *  less than 1 or more than the number of vertices
+     * @throws IllegalStateException if any of the edges are negative
+     * @param graph the graph to build the table for
+     * @param count the number of landmarks
+     * @param selection how to pick the landmarks
+     * @return the landmark table
+     */
+    public static LandmarkTable build(CsrGraph graph, int count,
+                                      Selection selection) {
+        return build(graph, count, selection, 0);
+    }
+
+    /**
+     * Picks {@code count} landmarks and runs Dijkstra's algorithm from each
+     * of them (and, for directed graphs, over the reversed graph too) to
+     * fill the table. This takes about 2 * count single source shortest
+     * path runs.
+     *
+     * @throws IllegalArgumentException if any input is null, or count is
+     *  less than 1 or more than the number of vertices
+     * @throws IllegalStateException if any of the edges are negative
+     * @param graph the graph to build the table for
+     * @param count the number of landmarks
+     * @param selection how to pick the landmarks
+     * @param seed the seed for the random vertices the selection starts from
+     * @return the landmark table
+     */
+    public static LandmarkTable build(CsrGraph graph, int count,
+                                      Selection selection, long seed) {
+        if (graph == null || selection == null || count < 1
+                || count > graph.getVertexCount()) {
+            throw new IllegalArgumentException("Input is null or landmark count is out of range");
+        }
+        int n = graph.getVertexCount();
+        int[] from = new int[count * n];
+        int[] to = graph.isDirected() ? new int[count * n] : from;
+        LandmarkTable table = new LandmarkTable(n, graph.isDirected(),
+                new int[count], from, to);
+        boolean[] isLandmark = new boolean[n];
+        int[] dist = new int[n];
+        int[] pred = new int[n];
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            int landmark = -1;
+            if (selection == Selection.AVOID) {
+                landmark = table.avoid(i, graph, random, isLandmark, dist, pred);
+            }
+            if (landmark < 0) {
+                landmark = table.farthest(i, graph, random, isLandmark, dist);
+            }
+            table.landmarks[i] = landmark;
+            isLandmark[landmark] = true;
+            GraphAlgs.dijkstra(landmark, graph, new IndexedDaryHeap(n), dist, null);
+            System.arraycopy(dist, 0, from, i * n, n);
+            if (graph.isDirected()) {
+                GraphAlgs.dijkstra(landmark, graph.reverse(),
+                        new IndexedDaryHeap(n), dist, null);
+                System.arraycopy(dist, 0, to, i * n, n);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Picks the vertex whose distance from the nearest of the first
+     * {@code used} landmarks is largest, counting vertices the landmarks
+     * cannot reach as farthest. The first landmark is the vertex farthest
+     * from a random vertex.
+     *
+     * @param used the number of landmarks picked so far
+     * @param graph the graph
+     * @param random the source of random vertices
+     * @param isLandmark which vertices are landmarks already
+     * @param dist scratch space for distances
+     * @return the next landmark
+     */
+    private int farthest(int used, CsrGraph graph, Random random,
+                         boolean[] isLandmark, int[] dist) {
+        int n = vertexCount;
+        if (used == 0) {
+            GraphAlgs.dijkstra(random.nextInt(n), graph, new IndexedDaryHeap(n),
+                    dist, null);
+        } else {
+            Arrays.fill(dist, Integer.MAX_VALUE);
+            for (int j = 0; j < used; j++) {
+                for (int v = 0; v < n; v++) {
+                    dist[v] = Math.min(dist[v], from[j * n + v]);
+                }
+            }
+        }
+        int best = -1;
+        for (int v = 0; v < n; v++) {
+            if (!isLandmark[v] && (best < 0 || dist[v] > dist[best])) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Picks the next landmark with the avoid method described in
+     * {@link Selection#AVOID}.
+     *
+     * @param used the number of landmarks picked so far
+     * @param graph the graph
+     * @param random the source of the random root
+     * @param isLandmark which vertices are landmarks already
+     * @param dist scratch space for distances
+     * @param pred scratch space for the shortest path tree
+     * @return the next landmark, or -1 if every subtree of the root already
+     *         holds a landmark
+     */
+    private int avoid(int used, CsrGraph graph, Random random,
+                      boolean[] isLandmark, int[] dist, int[] pred) {
+        int n = vertexCount;
+        int root = random.nextInt(n);
+        GraphAlgs.dijkstra(root, graph, new IndexedDaryHeap(n), dist, pred);
+        int[] childOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            if (pred[v] >= 0) {
+                childOffsets[pred[v] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            childOffsets[v + 1] += childOffsets[v];
+        }
+        int[] children = new int[childOffsets[n]];
+        int[] next = Arrays.copyOf(childOffsets, n);
+        for (int v = 0; v < n; v++) {
+            if (pred[v] >= 0) {
+                children[next[pred[v]]++] = v;
+            }
+        }
+        int[] order = new int[n];
+        int count = 0;
+        order[count++] = root;
+        for (int k = 0; k < count; k++) {
+            int v = order[k];
+            for (int c = childOffsets[v]; c < childOffsets[v + 1]; c++) {
+                order[count++] = children[c];
+            }
+        }
+        long[] size = new long[n];
+        boolean[] covered = new boolean[n];
+        for (int k = count - 1; k >= 0; k--) {
+            int v = order[k];
+            if (isLandmark[v]) {
+                covered[v] = true;
+            }
+            if (covered[v]) {
+                size[v] = 0;
+                if (pred[v] >= 0) {
+                    covered[pred[v]] = true;
+                }
+            } else {
+                size[v] += dist[v] - lowerBound(root, v, used);
+                if (pred[v] >= 0) {
+                    size[pred[v]] += size[v];
+                }
+            }
+        }
+        if (covered[root] && size[root] == 0) {
+            return -1;
+        }
+        int v = root;
+        while (true) {
+            int heaviest = -1;
+            for (int c = childOffsets[v]; c < childOffsets[v + 1]; c++) {
+                int child = children[c];
+                if (!covered[child] && (heaviest < 0 || size[child] > size[heaviest])) {
+                    heaviest = child;
+                }
+            }
+            if (heaviest < 0) {
+                return isLandmark[v] ? -1 : v;
+            }
+            v = heaviest;
+        }
+    }
+
+    /**
+     * Reads a landmark table written by {@link #write(OutputStream)}. The
+     * stream is read without buffering, so it is left just past the table
+     * and can be read on; it is not closed.
+     *
+     * @throws IOException if the stream cannot be read or does not hold a
+     *  landmark table
+     * @param in the stream to read from
+     * @return the landmark table
+     */
+    public static LandmarkTable read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Stream does not hold a landmark table");
+        }
+        int n = data.readInt();
+        boolean directed = data.readBoolean();
+        int count = data.readInt();
+        long cells = (long) count * n;
+        if (n < 0 || count < 0 || count > n || cells > Integer.MAX_VALUE - 8) {
+            throw new IOException("Corrupt landmark table header");
+        }
+        int[] landmarks = readInts(data, count);
+        int[] from = readInts(data, (int) cells);
+        int[] to = directed ? readInts(data, (int) cells) : from;
+        return new LandmarkTable(n, directed, landmarks, from, to);
+    }
+
+    /**
+     * Reads ints from a stream.
+     *
+     * @throws IOException if the stream cannot be read
+     * @param data the stream to read from
+     * @param length the number of ints to read
+     * @return the ints read
+     */
+    private static int[] readInts(DataInputStream data, int length)
+        throws IOException {
+        int[] array = new int[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = data.readInt();
+        }
+        return array;
+    }
+
+    /**
+     * Writes this table to a stream, to be read back with
+     * {@link #read(InputStream)}. The stream is flushed but not closed.
+     *
+     * @throws IOException if the stream cannot be written to
+     * @param out the stream to write to
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(vertexCount);
+        data.writeBoolean(directed);
+        data.writeInt(landmarks.length);
+        for (int x : landmarks) {
+            data.writeInt(x);
+        }
+        for (int x : from) {
+            data.writeInt(x);
+        }
+        if (directed) {
+            for (int x : to) {
+                data.writeInt(x);
+            }
+        }
+        data.flush();
+    }
+
+    @Override
+    public int estimate(int vertex, int target) {
+        return lowerBound(vertex, target, landmarks.length);
+    }
+
+    /**
+     * Computes the triangle inequality lower bound on the distance from v
+     * to t using the first {@code used} landmarks. Bounds involving a
+     * distance that is infinite are skipped.
+     *
+     * @param v the vertex to estimate the distance from
+     * @param t the vertex to estimate the distance to
+     * @param used the number of landmarks to use
+     * @return a lower bound on the distance from v to t, at least 0
+     */
+    private int lowerBound(int v, int t, int used) {
+        int n = vertexCount;
+        int best = 0;
+        for (int j = 0; j < used; j++) {
+            int fromV = from[j * n + v];
+            int fromT = from[j * n + t];
+            if (fromV != Integer.MAX_VALUE && fromT != Integer.MAX_VALUE) {
+                best = Math.max(best, fromT - fromV);
+            }
+            int toV = to[j * n + v];
+            int toT = to[j * n + t];
+            if (toV != Integer.MAX_VALUE && toT != Integer.MAX_VALUE) {
+                best = Math.max(best, toV - toT);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the number of vertices of the graph this table was built for.
+     *
+     * @return the number of vertices
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Gets the landmark vertices.
+     *
+     * @return a copy of the landmarks, in the order they were picked
+     */
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    /**
+     * Gets the distance from a landmark to a vertex.
+     *
+     * @param landmark the index of the landmark in {@link #getLandmarks()}
+     * @param v the vertex
+     * @return the distance, or Integer.MAX_VALUE if v is unreachable
+     */
+    public int distanceFrom(int landmark, int v) {
+        return from[landmark * vertexCount + v];
+    }
+
+    /**
+     * Gets the distance from a vertex to a landmark.
+     *
+     * @param landmark the index of the landmark in {@link #getLandmarks()}
+     * @param v the vertex
+     * @return the distance, or Integer.MAX_VALUE if the landmark is
+     *         unreachable from v
+     */
+    public int distanceTo(int landmark, int v) {
+        return to[landmark * vertexCount + v];
+    }
+}
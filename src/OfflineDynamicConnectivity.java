@@ -0,0 +1,328 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Offline dynamic connectivity: a timeline of undirected edge insertions,
+ * edge deletions and connectivity questions is recorded first, and all the
+ * questions are then answered together by {@link #solve()}.
+ *
+ * Every edge is alive from its insertion to its deletion, which covers a
+ * range of the questions. Those ranges are put in a segment tree over the
+ * questions, so that each range is split into O(log q) nodes. A depth
+ * first walk of the tree unites the edges of every node in a
+ * {@link RollbackDisjointSet} on the way down, answers a question at every
+ * leaf, and rolls the unions back on the way up. All in all this takes
+ * O((m log q + q) log n) for m edges and q questions.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class OfflineDynamicConnectivity {
+
+    private static final int ADD = 0;
+    private static final int REMOVE = 1;
+    private static final int CONNECTED = 2;
+    private static final int COUNT = 3;
+
+    private final int vertexCount;
+    private final Map<Long, Integer> alive = new HashMap<>();
+    private int[] kinds = new int[16];
+    private int[] us = new int[16];
+    private int[] vs = new int[16];
+    private int operationCount;
+    private int queryCount;
+
+    private int[] nodeHead;
+    private int[] entryEdge;
+    private int[] entryNext;
+    private int entryCount;
+    private int[] edgeU;
+    private int[] edgeV;
+
+    /**
+     * Creates an empty timeline over the vertices 0 to vertexCount - 1,
+     * with no edges.
+     *
+     * @throws IllegalArgumentException if vertexCount is negative
+     * @param vertexCount the number of vertices
+     */
+    public OfflineDynamicConnectivity(int vertexCount) {
+        if (vertexCount < 0) {
+            throw new IllegalArgumentException("Vertex count cannot be negative");
+        }
+        this.vertexCount = vertexCount;
+    }
+
+    /**
+     * Inserts an undirected edge at this point of the timeline. Parallel
+     * edges are allowed, and each needs its own deletion.
+     *
+     * @throws IllegalArgumentException if u or v is not a vertex
+     * @param u one end of the edge
+     * @param v the other end of the edge
+     */
+    public void addEdge(int u, int v) {
+        record(ADD, u, v);
+        alive.merge(key(u, v), 1, Integer::sum);
+    }
+
+    /**
+     * Deletes an undirected edge at this point of the timeline.
+     *
+     * @throws IllegalArgumentException if u or v is not a vertex, or there
+     *  is no edge between u and v at this point
+     * @param u one end of the edge
+     * @param v the other end of the edge
+     */
+    public void removeEdge(int u, int v) {
+        check(u);
+        check(v);
+        long key = key(u, v);
+        Integer copies = alive.get(key);
+        if (copies == null) {
+            throw new IllegalArgumentException("No edge between " + u + " and " + v);
+        }
+        if (copies == 1) {
+            alive.remove(key);
+        } else {
+            alive.put(key, copies - 1);
+        }
+        record(REMOVE, u, v);
+    }
+
+    /**
+     * Asks whether two vertices are connected at this point of the
+     * timeline.
+     *
+     * @throws IllegalArgumentException if u or v is not a vertex
+     * @param u the first vertex
+     * @param v the second vertex
+     * @return the index of the answer in the array {@link #solve()} returns
+     */
+    public int queryConnected(int u, int v) {
+        record(CONNECTED, u, v);
+        return queryCount++;
+    }
+
+    /**
+     * Asks how many connected components there are at this point of the
+     * timeline.
+     *
+     * @return the index of the answer in the array {@link #solve()} returns
+     */
+    public int queryComponentCount() {
+        record(COUNT, 0, 0);
+        return queryCount++;
+    }
+
+    /**
+     * Gets the number of questions asked so far.
+     *
+     * @return the number of questions
+     */
+    public int getQueryCount() {
+        return queryCount;
+    }
+
+    /**
+     * Answers every question asked so far. The timeline is kept, so more
+     * can be recorded and solve called again.
+     *
+     * @return the answers by question index: 1 if the vertices of a
+     *         {@link #queryConnected(int, int)} were connected and 0 if not,
+     *         and the number of components for a
+     *         {@link #queryComponentCount()}
+     */
+    public int[] solve() {
+        int[] answers = new int[queryCount];
+        if (queryCount == 0) {
+            return answers;
+        }
+        nodeHead = new int[4 * queryCount];
+        Arrays.fill(nodeHead, -1);
+        entryEdge = new int[16];
+        entryNext = new int[16];
+        entryCount = 0;
+        edgeU = new int[16];
+        edgeV = new int[16];
+        int edgeCount = 0;
+        Map<Long, ArrayDeque<Integer>> starts = new HashMap<>();
+        int queries = 0;
+        for (int i = 0; i < operationCount; i++) {
+            if (kinds[i] == ADD) {
+                starts.computeIfAbsent(key(us[i], vs[i]), k -> new ArrayDeque<>())
+                        .push(queries);
+            } else if (kinds[i] == REMOVE) {
+                int start = starts.get(key(us[i], vs[i])).pop();
+                if (start < queries) {
+                    edgeCount = addInterval(edgeCount, us[i], vs[i], start, queries);
+                }
+            } else {
+                queries++;
+            }
+        }
+        for (Map.Entry<Long, ArrayDeque<Integer>> open : starts.entrySet()) {
+            int u = (int) (open.getKey() >>> 32);
+            int v = (int) (long) open.getKey();
+            for (int start : open.getValue()) {
+                if (start < queryCount) {
+                    edgeCount = addInterval(edgeCount, u, v, start, queryCount);
+                }
+            }
+        }
+        int[] queryU = new int[queryCount];
+        int[] queryV = new int[queryCount];
+        boolean[] counts = new boolean[queryCount];
+        queries = 0;
+        for (int i = 0; i < operationCount; i++) {
+            if (kinds[i] == CONNECTED || kinds[i] == COUNT) {
+                queryU[queries] = us[i];
+                queryV[queries] = vs[i];
+                counts[queries] = kinds[i] == COUNT;
+                queries++;
+            }
+        }
+        RollbackDisjointSet components = new RollbackDisjointSet(vertexCount);
+        walk(1, 0, queryCount, components, queryU, queryV, counts, answers);
+        nodeHead = null;
+        entryEdge = null;
+        entryNext = null;
+        edgeU = null;
+        edgeV = null;
+        return answers;
+    }
+
+    /**
+     * Stores an edge and puts it in the segment tree nodes covering the
+     * questions it is alive for.
+     *
+     * @param edge the index to store the edge at
+     * @param u one end of the edge
+     * @param v the other end of the edge
+     * @param from the first question the edge is alive for
+     * @param to one past the last question the edge is alive for
+     * @return the number of edges stored
+     */
+    private int addInterval(int edge, int u, int v, int from, int to) {
+        if (edge == edgeU.length) {
+            edgeU = Arrays.copyOf(edgeU, 2 * edge);
+            edgeV = Arrays.copyOf(edgeV, 2 * edge);
+        }
+        edgeU[edge] = u;
+        edgeV[edge] = v;
+        insert(1, 0, queryCount, from, to, edge);
+        return edge + 1;
+    }
+
+    /**
+     * Adds an edge to every node under node whose questions all fall in
+     * {@code [from, to)} and whose parent's do not.
+     *
+     * @param node the node of the segment tree
+     * @param lo the first question of node
+     * @param hi one past the last question of node
+     * @param from the first question the edge is alive for
+     * @param to one past the last question the edge is alive for
+     * @param edge the index of the edge
+     */
+    private void insert(int node, int lo, int hi, int from, int to, int edge) {
+        if (to <= lo || hi <= from) {
+            return;
+        }
+        if (from <= lo && hi <= to) {
+            if (entryCount == entryEdge.length) {
+                entryEdge = Arrays.copyOf(entryEdge, 2 * entryCount);
+                entryNext = Arrays.copyOf(entryNext, 2 * entryCount);
+            }
+            entryEdge[entryCount] = edge;
+            entryNext[entryCount] = nodeHead[node];
+            nodeHead[node] = entryCount++;
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        insert(2 * node, lo, mid, from, to, edge);
+        insert(2 * node + 1, mid, hi, from, to, edge);
+    }
+
+    /**
+     * Unites the edges of a node, answers the questions under it, and
+     * undoes the unions.
+     *
+     * @param node the node of the segment tree
+     * @param lo the first question of node
+     * @param hi one past the last question of node
+     * @param components the disjoint set of the edges of node's ancestors
+     * @param queryU the first vertex of every question
+     * @param queryV the second vertex of every question
+     * @param counts whether or not every question asks for the count
+     * @param answers the answers to fill in
+     */
+    private void walk(int node, int lo, int hi, RollbackDisjointSet components,
+                      int[] queryU, int[] queryV, boolean[] counts, int[] answers) {
+        int checkpoint = components.checkpoint();
+        for (int e = nodeHead[node]; e >= 0; e = entryNext[e]) {
+            components.union(edgeU[entryEdge[e]], edgeV[entryEdge[e]]);
+        }
+        if (hi - lo == 1) {
+            if (counts[lo]) {
+                answers[lo] = components.componentCount();
+            } else {
+                answers[lo] = components.sameSet(queryU[lo], queryV[lo]) ? 1 : 0;
+            }
+        } else {
+            int mid = (lo + hi) >>> 1;
+            walk(2 * node, lo, mid, components, queryU, queryV, counts, answers);
+            walk(2 * node + 1, mid, hi, components, queryU, queryV, counts, answers);
+        }
+        components.rollback(checkpoint);
+    }
+
+    /**
+     * Appends an operation to the timeline.
+     *
+     * @throws IllegalArgumentException if u or v is not a vertex
+     * @param kind the kind of operation
+     * @param u the first vertex
+     * @param v the second vertex
+     */
+    private void record(int kind, int u, int v) {
+        if (kind != COUNT) {
+            check(u);
+            check(v);
+        }
+        if (operationCount == kinds.length) {
+            kinds = Arrays.copyOf(kinds, 2 * operationCount);
+            us = Arrays.copyOf(us, 2 * operationCount);
+            vs = Arrays.copyOf(vs, 2 * operationCount);
+        }
+        kinds[operationCount] = kind;
+        us[operationCount] = u;
+        vs[operationCount] = v;
+        operationCount++;
+    }
+
+    /**
+     * Checks that an int is a vertex.
+     *
+     * @throws IllegalArgumentException if v is not a vertex
+     * @param v the int to check
+     */
+    private void check(int v) {
+        if (v < 0 || v >= vertexCount) {
+            throw new IllegalArgumentException("Vertex is not in the graph: " + v);
+        }
+    }
+
+    /**
+     * Packs an undirected edge into a long, smaller end first.
+     *
+     * @param u one end of the edge
+     * @param v the other end of the edge
+     * @return the key of the edge
+     */
+    private static long key(int u, int v) {
+        return ((long) Math.min(u, v) << 32) | Math.max(u, v);
+    }
+}
@@ -0,0 +1,241 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Level synchronous breadth first search that expands every frontier level
+ * in parallel on a ForkJoinPool. Used by
+ * {@link GraphAlgs#parallelBreadthFirstSearch(int, CsrGraph, ForkJoinPool, boolean)}.
+ *
+ * Each level is cut into chunks of frontier vertices. The task for a chunk
+ * claims unvisited neighbors by setting their bit in an atomic visited
+ * bitmap and writes the ones it claimed into its own next frontier buffer.
+ * The buffers are then copied, in chunk order, behind the current level of
+ * the order array, which becomes the next frontier.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+final class ParallelBfs {
+
+    /**
+     * The fewest frontier vertices a chunk is cut down to.
+     */
+    private static final int MIN_CHUNK = 256;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final AtomicLongArray visited;
+    private final AtomicIntegerArray owner;
+    private final int[] level;
+    private final int[] parent;
+    private final int[] order;
+
+    /**
+     * Sets up a search over a graph.
+     *
+     * @param graph the graph to search
+     * @param deterministic whether or not the search has to reproduce the
+     *        visit order of breadthFirstSearch
+     */
+    private ParallelBfs(CsrGraph graph, boolean deterministic) {
+        int n = graph.getVertexCount();
+        offsets = graph.getOffsets();
+        targets = graph.getTargets();
+        visited = new AtomicLongArray((n + 63) >>> 6);
+        level = new int[n];
+        parent = new int[n];
+        order = new int[n];
+        Arrays.fill(level, -1);
+        Arrays.fill(parent, -1);
+        if (deterministic) {
+            owner = new AtomicIntegerArray(n);
+            for (int v = 0; v < n; v++) {
+                owner.set(v, Integer.MAX_VALUE);
+            }
+        } else {
+            owner = null;
+        }
+    }
+
+    /**
+     * Runs a parallel bfs from {@code start}.
+     *
+     * In deterministic mode every level is expanded in two passes. The first
+     * pass records, for every unvisited neighbor, the smallest position in
+     * the order array of a frontier vertex adjacent to it. The second pass
+     * lets only that frontier vertex claim the neighbor. Since chunks are
+     * copied back in order, the result is the exact order of the sequential
+     * breadthFirstSearch, parents included.
+     *
+     * @param start the vertex to begin the bfs on
+     * @param graph the graph to search
+     * @param pool the pool to run the level tasks on
+     * @param deterministic whether or not to reproduce the sequential order
+     * @return the level and parent of every vertex reached from start
+     */
+    static BfsTree search(int start, CsrGraph graph, ForkJoinPool pool,
+                          boolean deterministic) {
+        ParallelBfs bfs = new ParallelBfs(graph, deterministic);
+        bfs.claim(start);
+        bfs.level[start] = 0;
+        bfs.order[0] = start;
+        int levelStart = 0;
+        int levelEnd = 1;
+        int depth = 0;
+        while (levelStart < levelEnd) {
+            int size = levelEnd - levelStart;
+            int chunk = Math.max(MIN_CHUNK, size / (pool.getParallelism() * 4));
+            int chunks = (size + chunk - 1) / chunk;
+            int[][] buffers = new int[chunks][];
+            int[] counts = new int[chunks];
+            if (deterministic) {
+                pool.invoke(bfs.new LevelTask(levelStart, levelEnd, chunk, 0,
+                        chunks, depth, true, null, null));
+            }
+            pool.invoke(bfs.new LevelTask(levelStart, levelEnd, chunk, 0,
+                    chunks, depth, false, buffers, counts));
+            int tail = levelEnd;
+            for (int c = 0; c < chunks; c++) {
+                System.arraycopy(buffers[c], 0, bfs.order, tail, counts[c]);
+                tail += counts[c];
+            }
+            levelStart = levelEnd;
+            levelEnd = tail;
+            depth++;
+        }
+        return new BfsTree(start, bfs.level, bfs.parent, bfs.order, levelEnd);
+    }
+
+    /**
+     * Atomically marks a vertex as visited.
+     *
+     * @param v the vertex to mark
+     * @return true if this call marked v, false if it was already visited
+     */
+    private boolean claim(int v) {
+        int index = v >>> 6;
+        long bit = 1L << v;
+        while (true) {
+            long word = visited.get(index);
+            if ((word & bit) != 0) {
+                return false;
+            }
+            if (visited.compareAndSet(index, word, word | bit)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gets whether or not a vertex has been visited.
+     *
+     * @param v the vertex to check
+     * @return true if v is visited, false otherwise
+     */
+    private boolean isVisited(int v) {
+        return (visited.get(v >>> 6) & (1L << v)) != 0;
+    }
+
+    /**
+     * Lowers the owner of a vertex to {@code position} if it is smaller.
+     *
+     * @param v the vertex
+     * @param position the position of a frontier vertex adjacent to v
+     */
+    private void lowerOwner(int v, int position) {
+        int current = owner.get(v);
+        while (position < current && !owner.compareAndSet(v, current, position)) {
+            current = owner.get(v);
+        }
+    }
+
+    /**
+     * Expands the chunks {@code [firstChunk, lastChunk)} of one level,
+     * splitting in half until a single chunk is left.
+     */
+    private final class LevelTask extends RecursiveAction {
+
+        private final int levelStart;
+        private final int levelEnd;
+        private final int chunk;
+        private final int firstChunk;
+        private final int lastChunk;
+        private final int depth;
+        private final boolean ownerPass;
+        private final int[][] buffers;
+        private final int[] counts;
+
+        /**
+         * Creates a task for a range of chunks.
+         *
+         * @param levelStart the position of the first frontier vertex
+         * @param levelEnd one past the position of the last frontier vertex
+         * @param chunk the number of frontier vertices per chunk
+         * @param firstChunk the first chunk of this task
+         * @param lastChunk one past the last chunk of this task
+         * @param depth the level of the frontier
+         * @param ownerPass true to only record owners (deterministic mode)
+         * @param buffers the next frontier buffer of every chunk
+         * @param counts the number of vertices in every buffer
+         */
+        LevelTask(int levelStart, int levelEnd, int chunk, int firstChunk,
+                  int lastChunk, int depth, boolean ownerPass,
+                  int[][] buffers, int[] counts) {
+            this.levelStart = levelStart;
+            this.levelEnd = levelEnd;
+            this.chunk = chunk;
+            this.firstChunk = firstChunk;
+            this.lastChunk = lastChunk;
+            this.depth = depth;
+            this.ownerPass = ownerPass;
+            this.buffers = buffers;
+            this.counts = counts;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastChunk - firstChunk > 1) {
+                int mid = (firstChunk + lastChunk) >>> 1;
+                invokeAll(new LevelTask(levelStart, levelEnd, chunk, firstChunk,
+                                mid, depth, ownerPass, buffers, counts),
+                        new LevelTask(levelStart, levelEnd, chunk, mid,
+                                lastChunk, depth, ownerPass, buffers, counts));
+                return;
+            }
+            int from = levelStart + firstChunk * chunk;
+            int to = Math.min(levelEnd, from + chunk);
+            if (ownerPass) {
+                for (int k = from; k < to; k++) {
+                    int u = order[k];
+                    for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                        if (!isVisited(targets[i])) {
+                            lowerOwner(targets[i], k);
+                        }
+                    }
+                }
+                return;
+            }
+            int[] buffer = new int[16];
+            int count = 0;
+            for (int k = from; k < to; k++) {
+                int u = order[k];
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int v = targets[i];
+                    if ((owner == null || owner.get(v) == k) && claim(v)) {
+                        if (count == buffer.length) {
+                            buffer = Arrays.copyOf(buffer, count * 2);
+                        }
+                        buffer[count++] = v;
+                        level[v] = depth + 1;
+                        parent[v] = u;
+                    }
+                }
+            }
+            buffers[firstChunk] = buffer;
+            counts[firstChunk] = count;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * A disjoint set over the ints 0 to n - 1 whose unions can be undone, for
+ * offline dynamic connectivity (see {@link OfflineDynamicConnectivity}).
+ *
+ * Path compression would change parents that later unions rely on, so
+ * finds here do not compress. Unions by rank keep every tree at most log n
+ * high instead, so a find still takes O(log n). Every union that joins two
+ * sets is pushed on a stack; {@link #checkpoint()} marks the stack and
+ * {@link #rollback(int)} pops and undoes unions back to a mark. Nothing is
+ * allocated after construction.
+ *
+ * This class is not thread safe.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class RollbackDisjointSet {
+
+    private final int[] parent;
+    private final int[] rank;
+    private final int[] linked;
+    private final boolean[] rankRaised;
+    private int history;
+
+    /**
+     * Creates a disjoint set with every int from 0 to n - 1 in its own set.
+     *
+     * @throws IllegalArgumentException if n is negative
+     * @param n the number of elements
+     */
+    public RollbackDisjointSet(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Size cannot be negative");
+        }
+        parent = new int[n];
+        rank = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+        }
+        linked = new int[Math.max(0, n - 1)];
+        rankRaised = new boolean[linked.length];
+    }
+
+    /**
+     * Gets the number of elements.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return parent.length;
+    }
+
+    /**
+     * Finds the root of the set v is in, without changing anything.
+     *
+     * @throws IllegalArgumentException if v is not an element
+     * @param v the element
+     * @return the root of v
+     */
+    public int find(int v) {
+        if (v < 0 || v >= parent.length) {
+            throw new IllegalArgumentException("Element is not in the set: " + v);
+        }
+        while (parent[v] != v) {
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * Unites the sets of two elements, hanging the root of lower rank under
+     * the other, and remembers the union so that it can be undone.
+     *
+     * @throws IllegalArgumentException if a or b is not an element
+     * @param a the first element
+     * @param b the second element
+     * @return true if a and b were in different sets, false otherwise
+     */
+    public boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+        if (rank[rootA] < rank[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        linked[history] = rootB;
+        rankRaised[history] = rank[rootA] == rank[rootB];
+        if (rankRaised[history]) {
+            rank[rootA]++;
+        }
+        history++;
+        return true;
+    }
+
+    /**
+     * Checks whether two elements are in the same set.
+     *
+     * @throws IllegalArgumentException if a or b is not an element
+     * @param a the first element
+     * @param b the second element
+     * @return true if a and b are in the same set
+     */
+    public boolean sameSet(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /**
+     * Gets the number of sets.
+     *
+     * @return the number of disjoint sets
+     */
+    public int componentCount() {
+        return parent.length - history;
+    }
+
+    /**
+     * Marks the current state, to go back to with {@link #rollback(int)}.
+     *
+     * @return the mark, which is the number of unions not undone
+     */
+    public int checkpoint() {
+        return history;
+    }
+
+    /**
+     * Undoes every union made since a checkpoint, latest first.
+     *
+     * @throws IllegalArgumentException if the checkpoint is negative or
+     *  later than the current state
+     * @param checkpoint a mark returned by {@link #checkpoint()}
+     */
+    public void rollback(int checkpoint) {
+        if (checkpoint < 0 || checkpoint > history) {
+            throw new IllegalArgumentException("No such checkpoint: " + checkpoint);
+        }
+        while (history > checkpoint) {
+            history--;
+            int child = linked[history];
+            int root = parent[child];
+            parent[child] = child;
+            if (rankRaised[history]) {
+                rank[root]--;
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * The answer to a point to point shortest path query: the distance from a
+ * source vertex to a target vertex and the vertices of one shortest path
+ * between them.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class ShortestPath {
+
+    private final int source;
+    private final int target;
+    private final int distance;
+    private final int[] vertices;
+    private final int settledCount;
+
+    /**
+     * Creates a ShortestPath. The vertices array is used directly, not
+     * copied.
+     *
+     * @param source the vertex the path starts at
+     * @param target the vertex the path ends at
+     * @param distance the length of the path, or Integer.MAX_VALUE if there
+     *        is no path
+     * @param vertices the vertices of the path from source to target, empty
+     *        if there is no path
+     * @param settledCount the number of vertices the search settled
+     */
+    ShortestPath(int source, int target, int distance, int[] vertices,
+                 int settledCount) {
+        this.source = source;
+        this.target = target;
+        this.distance = distance;
+        this.vertices = vertices;
+        this.settledCount = settledCount;
+    }
+
+    /**
+     * Gets the vertex the path starts at.
+     *
+     * @return the source vertex
+     */
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the vertex the path ends at.
+     *
+     * @return the target vertex
+     */
+    public int getTarget() {
+        return target;
+    }
+
+    /**
+     * Gets the length of the shortest path.
+     *
+     * @return the distance from source to target, or Integer.MAX_VALUE
+     *         (representing infinity) if there is no path
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    /**
+     * Gets whether or not there is a path from source to target.
+     *
+     * @return true if target is reachable from source, false otherwise
+     */
+    public boolean hasPath() {
+        return vertices.length > 0;
+    }
+
+    /**
+     * Gets the vertices of the path, starting with the source and ending
+     * with the target.
+     *
+     * @return a copy of the vertices of the path, empty if there is no path
+     */
+    public int[] getVertices() {
+        return vertices.clone();
+    }
+
+    /**
+     * Gets the number of vertices whose distance the search had to settle
+     * to answer the query, counting both directions of a bidirectional
+     * search.
+     *
+     * @return the number of settled vertices
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    @Override
+    public String toString() {
+        if (!hasPath()) {
+            return "No path from " + source + " to " + target;
+        }
+        return "Path from " + source + " to " + target + " with distance "
+            + distance;
+    }
+}
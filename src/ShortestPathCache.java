@@ -0,0 +1,353 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A cache of single source shortest path results, keyed by the graph (by
+ * identity, not equality), a version number of that graph, and the source
+ * vertex. The caller bumps the version whenever it changes the graph, or
+ * lets {@link #get(GraphAdjList, int)} read the version a GraphAdjList keeps
+ * itself, so stale results are never returned; they are simply never asked
+ * for again and age out.
+ *
+ * The cache is bounded by the memory its results take, about 8 bytes per
+ * vertex each, and evicts the least recently used results first. It is
+ * thread safe. When many threads ask for the same missing result at once,
+ * one of them runs Dijkstra's algorithm and the others wait for it.
+ *
+ * Keys hold on to their graphs until they are evicted or
+ * {@link #invalidate(Object)} is called.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class ShortestPathCache {
+
+    /**
+     * The bytes a cached result takes besides its two arrays: the tree, the
+     * arrays' headers, the key and the map entry.
+     */
+    private static final long ENTRY_OVERHEAD = 160;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @throws IllegalArgumentException if maxBytes is negative
+     * @param maxBytes the most memory the cached results may take
+     */
+    public ShortestPathCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Max bytes cannot be negative");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gets the shortest paths from a source in a graph in adjacency list
+     * format, running {@link GraphAlgs#shortPathTree(int, GraphAdjList)}
+     * if they are not cached. The vertices of the graph must be numbered 0
+     * to n - 1.
+     *
+     * @throws IllegalArgumentException if the graph is null, or if source
+     *  doesn't exist in the graph
+     * @throws IllegalStateException if any of the edges are negative, or
+     *  the thread is interrupted while waiting for another thread's search
+     * @param graph the graph to search
+     * @param version the version of the graph, changed by the caller every
+     *        time the graph changes
+     * @param source the vertex to start at
+     * @return the distances and predecessors from source
+     */
+    public ShortestPathTree get(GraphAdjList graph, long version, int source) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null.");
+        }
+        return get(graph, version, source,
+            () -> GraphAlgs.shortPathTree(source, graph));
+    }
+
+    /**
+     * Gets the shortest paths from a source in a graph in adjacency list
+     * format at its current {@link GraphAdjList#getVersion() version}, so
+     * that results from before a change made through addVertex, addEdge or
+     * removeEdge are never returned.
+     *
+     * @throws IllegalArgumentException if the graph is null, or if source
+     *  doesn't exist in the graph
+     * @throws IllegalStateException if any of the edges are negative, or
+     *  the thread is interrupted while waiting for another thread's search
+     * @param graph the graph to search
+     * @param source the vertex to start at
+     * @return the distances and predecessors from source
+     */
+    public ShortestPathTree get(GraphAdjList graph, int source) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null.");
+        }
+        return get(graph, graph.getVersion(), source);
+    }
+
+    /**
+     * Gets the shortest paths from a source in a graph in CSR format,
+     * running {@link GraphAlgs#shortPathTree(int, CsrGraph)} if they are
+     * not cached.
+     *
+     * @throws IllegalArgumentException if the graph is null, or if source
+     *  doesn't exist in the graph
+     * @throws IllegalStateException if any of the edges are negative, or
+     *  the thread is interrupted while waiting for another thread's search
+     * @param graph the graph to search
+     * @param version the version of the graph, changed by the caller every
+     *        time the graph changes
+     * @param source the vertex to start at
+     * @return the distances and predecessors from source
+     */
+    public ShortestPathTree get(CsrGraph graph, long version, int source) {
+        if (graph == null || source < 0 || source >= graph.getVertexCount()) {
+            throw new IllegalArgumentException("Input is null or start is not in the graph");
+        }
+        return get(graph, version, source,
+            () -> GraphAlgs.shortPathTree(source, graph));
+    }
+
+    /**
+     * Looks up a result, or computes it in this thread if no other thread
+     * is computing it already.
+     *
+     * @throws IllegalStateException if the search fails, or the thread is
+     *  interrupted while waiting for another thread's search
+     * @param graph the graph to search
+     * @param version the version of the graph
+     * @param source the vertex to start at
+     * @param search the search to run on a miss
+     * @return the distances and predecessors from source
+     */
+    private ShortestPathTree get(Object graph, long version, int source,
+                                 Callable<ShortestPathTree> search) {
+        Key key = new Key(graph, version, source);
+        Entry entry;
+        boolean owner = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+            } else {
+                misses++;
+                entry = new Entry(new FutureTask<>(search));
+                entries.put(key, entry);
+                owner = true;
+            }
+        }
+        if (owner) {
+            entry.task.run();
+            finish(key, entry);
+        }
+        try {
+            return entry.task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shortest paths", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Charges a finished search's result to the cache and evicts what no
+     * longer fits, or drops the entry if the search threw, so the next
+     * lookup tries again.
+     *
+     * @param key the key of the search
+     * @param entry the entry of the search, which has run
+     */
+    private synchronized void finish(Key key, Entry entry) {
+        if (entries.get(key) != entry) {
+            return;
+        }
+        try {
+            entry.weight = 8L * entry.task.get().getVertexCount() + ENTRY_OVERHEAD;
+            bytes += entry.weight;
+            evict();
+        } catch (InterruptedException | ExecutionException e) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Removes the least recently used finished results until the cached
+     * results fit in maxBytes. Results still being computed have no weight
+     * yet and are kept.
+     */
+    private void evict() {
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Entry entry = it.next().getValue();
+            if (entry.weight > 0) {
+                it.remove();
+                bytes -= entry.weight;
+                evictions++;
+            }
+        }
+    }
+
+    /**
+     * Removes every result of a graph, whatever its version.
+     *
+     * @param graph the graph whose results to remove
+     */
+    public synchronized void invalidate(Object graph) {
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> next = it.next();
+            if (next.getKey().graph == graph) {
+                it.remove();
+                bytes -= next.getValue().weight;
+            }
+        }
+    }
+
+    /**
+     * Removes every result. The statistics are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Gets the number of results cached or being computed.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the memory the cached results take.
+     *
+     * @return the estimated size of the cached results in bytes
+     */
+    public synchronized long getWeightBytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets the most memory the cached results may take.
+     *
+     * @return the bound on the size of the cached results in bytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Gets the number of lookups that found their result cached or already
+     * being computed.
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that had to run a search.
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of results removed to stay within maxBytes.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ShortestPathCache: " + entries.size() + " entries, " + bytes
+            + "/" + maxBytes + " bytes, " + hits + " hits, " + misses
+            + " misses, " + evictions + " evictions";
+    }
+
+    /**
+     * A graph, by identity, with a version and a source vertex.
+     */
+    private static final class Key {
+
+        private final Object graph;
+        private final long version;
+        private final int source;
+
+        /**
+         * Creates a key.
+         *
+         * @param graph the graph
+         * @param version the version of the graph
+         * @param source the source vertex
+         */
+        Key(Object graph, long version, int source) {
+            this.graph = graph;
+            this.version = version;
+            this.source = source;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return graph == other.graph && version == other.version
+                && source == other.source;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(graph);
+            hash = 31 * hash + Long.hashCode(version);
+            return 31 * hash + source;
+        }
+    }
+
+    /**
+     * A cached result, or one being computed, and its weight once known.
+     */
+    private static final class Entry {
+
+        private final FutureTask<ShortestPathTree> task;
+        private long weight;
+
+        /**
+         * Creates an entry for a search that has not run yet.
+         *
+         * @param task the search
+         */
+        Entry(FutureTask<ShortestPathTree> task) {
+            this.task = task;
+        }
+    }
+}
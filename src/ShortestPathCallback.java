@@ -0,0 +1,23 @@
+/**
+ * Receives the result of every source of
+ * {@link GraphAlgs#shortPathDijkBatch(int[], CsrGraph, ShortestPathCallback, java.util.concurrent.ForkJoinPool)}
+ * as soon as that source is done.
+ *
+ * The callback is called from the pool's worker threads, possibly several
+ * at once, so it must be thread safe. The tree it is given is backed by
+ * arrays the worker reuses for its next source: read what is needed (or
+ * copy it) before returning, and do not keep the tree.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public interface ShortestPathCallback {
+
+    /**
+     * Handles the shortest paths from one source.
+     *
+     * @param tree the distances and predecessors from the source, valid
+     *        only until this method returns
+     */
+    void accept(ShortestPathTree tree);
+}
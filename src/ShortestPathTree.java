@@ -0,0 +1,233 @@
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The result of a single source shortest path search: the distance to every
+ * vertex and the vertex before it on a shortest path, in two int arrays
+ * indexed by vertex. This takes 8 bytes per vertex, against roughly ten
+ * times that for a HashMap of boxed distances, and any shortest path can be
+ * rebuilt in time proportional to its length.
+ *
+ * {@link #asMap()} gives the distances as a read only Map for code written
+ * against {@link GraphAlgs#shortPathDijk(int, GraphAdjList)}, without
+ * copying them.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class ShortestPathTree {
+
+    private final int source;
+    private final int[] dist;
+    private final int[] pred;
+
+    /**
+     * Creates a ShortestPathTree. The arrays are used directly, not copied.
+     *
+     * @param source the vertex the search started at
+     * @param dist the distance to every vertex, Integer.MAX_VALUE if
+     *        unreachable
+     * @param pred the vertex before every vertex on its shortest path, -1
+     *        for source and unreachable vertices
+     */
+    ShortestPathTree(int source, int[] dist, int[] pred) {
+        this.source = source;
+        this.dist = dist;
+        this.pred = pred;
+    }
+
+    /**
+     * Gets the vertex the search started at.
+     *
+     * @return the source vertex
+     */
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the number of vertices of the graph searched.
+     *
+     * @return the number of vertices
+     */
+    public int getVertexCount() {
+        return dist.length;
+    }
+
+    /**
+     * Gets the shortest distance from the source to a vertex.
+     *
+     * @param v the vertex
+     * @return the distance, or Integer.MAX_VALUE (representing infinity) if
+     *         v is unreachable
+     */
+    public int distanceTo(int v) {
+        return dist[v];
+    }
+
+    /**
+     * Gets whether or not a vertex can be reached from the source.
+     *
+     * @param v the vertex
+     * @return true if there is a path from the source to v, false otherwise
+     */
+    public boolean isReachable(int v) {
+        return dist[v] != Integer.MAX_VALUE;
+    }
+
+    /**
+     * Gets the vertex before a vertex on its shortest path.
+     *
+     * @param v the vertex
+     * @return the predecessor of v, or -1 if v is the source or unreachable
+     */
+    public int getPredecessor(int v) {
+        return pred[v];
+    }
+
+    /**
+     * Gets the number of vertices on the shortest path to a vertex, which
+     * is how long an array {@link #pathTo(int, int[])} needs.
+     *
+     * @param v the vertex
+     * @return the number of vertices on the path, counting the source and
+     *         v, or 0 if v is unreachable
+     */
+    public int pathLength(int v) {
+        if (dist[v] == Integer.MAX_VALUE) {
+            return 0;
+        }
+        int length = 1;
+        for (int u = v; u != source; u = pred[u]) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Writes the vertices of the shortest path from the source to a vertex
+     * into the start of an array.
+     *
+     * @throws IllegalArgumentException if out is null or shorter than the
+     *  path
+     * @param v the vertex the path ends at
+     * @param out the array to write the path into
+     * @return the number of vertices written, or 0 if v is unreachable
+     */
+    public int pathTo(int v, int[] out) {
+        int length = pathLength(v);
+        if (out == null || out.length < length) {
+            throw new IllegalArgumentException("Output array is null or shorter than the path");
+        }
+        int u = v;
+        for (int i = length - 1; i >= 0; i--) {
+            out[i] = u;
+            u = pred[u];
+        }
+        return length;
+    }
+
+    /**
+     * Gets the vertices of the shortest path from the source to a vertex.
+     *
+     * @param v the vertex the path ends at
+     * @return the vertices of the path, empty if v is unreachable
+     */
+    public int[] pathTo(int v) {
+        int[] path = new int[pathLength(v)];
+        pathTo(v, path);
+        return path;
+    }
+
+    /**
+     * Gets the distances as a read only map from every vertex to its
+     * distance, in the format of
+     * {@link GraphAlgs#shortPathDijk(int, GraphAdjList)}. The map reads
+     * this tree's array directly.
+     *
+     * @return a map view of the distances
+     */
+    public Map<Integer, Integer> asMap() {
+        return distanceMap(dist);
+    }
+
+    /**
+     * Wraps an array of distances in a read only map from vertex to
+     * distance.
+     *
+     * @param dist the distance to every vertex
+     * @return a map view of the distances
+     */
+    static Map<Integer, Integer> distanceMap(int[] dist) {
+        return new DistanceMap(dist);
+    }
+
+    /**
+     * A read only map from the ints 0 to n - 1 to the entries of an int
+     * array. Boxes values only when they are read.
+     */
+    private static final class DistanceMap extends AbstractMap<Integer, Integer> {
+
+        private final int[] dist;
+
+        /**
+         * Creates a map over an array.
+         *
+         * @param dist the distance to every vertex
+         */
+        DistanceMap(int[] dist) {
+            this.dist = dist;
+        }
+
+        @Override
+        public int size() {
+            return dist.length;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer && (Integer) key >= 0
+                && (Integer) key < dist.length;
+        }
+
+        @Override
+        public Integer get(Object key) {
+            return containsKey(key) ? dist[(Integer) key] : null;
+        }
+
+        @Override
+        public Set<Entry<Integer, Integer>> entrySet() {
+            return new AbstractSet<Entry<Integer, Integer>>() {
+                @Override
+                public int size() {
+                    return dist.length;
+                }
+
+                @Override
+                public Iterator<Entry<Integer, Integer>> iterator() {
+                    return new Iterator<Entry<Integer, Integer>>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < dist.length;
+                        }
+
+                        @Override
+                        public Entry<Integer, Integer> next() {
+                            if (next >= dist.length) {
+                                throw new NoSuchElementException();
+                            }
+                            int v = next++;
+                            return new SimpleImmutableEntry<>(v, dist[v]);
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
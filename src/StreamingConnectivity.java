@@ -0,0 +1,239 @@
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Connected components of a graph whose edges arrive as a stream, kept up
+ * to date one edge at a time in an {@link IntDisjointSet} instead of
+ * building a GraphAdjList and searching it again after every change.
+ * Whether two vertices are connected, how many components there are, and
+ * how large a vertex's component is are all answered in near constant
+ * time. Edges are taken as undirected and their weights are ignored.
+ * Edges cannot be removed.
+ *
+ * A growable stream accepts the vertices 0 to {@link #MAX_VERTEX} and
+ * grows its arrays as larger vertices show up; a vertex belongs to the
+ * graph once it was added or was the end of an edge. Its memory is linear
+ * in the largest vertex seen, not in the number of vertices, so sparse
+ * vertex ids should be numbered densely first. A bounded stream has the
+ * vertices 0 to n - 1 from the start and never allocates again; it holds
+ * only the two int arrays of the disjoint set.
+ *
+ * All methods are synchronized, so one thread can feed edges while others
+ * ask questions.
+ *
+ * @author Hao Zhang
+ * @version 1.0
+ */
+public final class StreamingConnectivity {
+
+    /**
+     * The largest vertex a growable stream accepts. Its arrays then take
+     * about 9 bytes per vertex up to this one, around 600 MB.
+     */
+    public static final int MAX_VERTEX = (1 << 26) - 1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final boolean bounded;
+    private IntDisjointSet components;
+    private boolean[] present;
+    private int vertexCount;
+    private long edgeCount;
+
+    /**
+     * Creates an empty growable stream.
+     */
+    public StreamingConnectivity() {
+        bounded = false;
+        components = new IntDisjointSet(INITIAL_CAPACITY);
+        present = new boolean[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Creates a bounded stream over the vertices 0 to vertexCount - 1, each
+     * in its own component.
+     *
+     * @throws IllegalArgumentException if vertexCount is negative
+     * @param vertexCount the number of vertices
+     */
+    public StreamingConnectivity(int vertexCount) {
+        if (vertexCount < 0) {
+            throw new IllegalArgumentException("Vertex count cannot be negative");
+        }
+        bounded = true;
+        components = new IntDisjointSet(vertexCount);
+        this.vertexCount = vertexCount;
+    }
+
+    /**
+     * Adds a vertex in its own component, if it is not in the graph yet.
+     *
+     * @throws IllegalArgumentException if v is negative, the stream is
+     *  bounded and v is not one of its vertices, or the stream is growable
+     *  and v is greater than {@link #MAX_VERTEX}
+     * @param v the vertex
+     */
+    public synchronized void addVertex(int v) {
+        checkAdd(v);
+        if (bounded) {
+            return;
+        }
+        if (v >= present.length) {
+            int capacity = Math.min(MAX_VERTEX + 1,
+                    Math.max(v + 1, 2 * present.length));
+            components = new IntDisjointSet(components, capacity);
+            present = Arrays.copyOf(present, capacity);
+        }
+        if (!present[v]) {
+            present[v] = true;
+            vertexCount++;
+        }
+    }
+
+    /**
+     * Adds an undirected edge, adding its ends first if they are not in the
+     * graph yet. Both ends are checked before anything changes.
+     *
+     * @throws IllegalArgumentException if addVertex does not accept u or v
+     * @param u one end of the edge
+     * @param v the other end of the edge
+     * @return true if the edge joined two components, false otherwise
+     */
+    public synchronized boolean addEdge(int u, int v) {
+        checkAdd(u);
+        checkAdd(v);
+        addVertex(u);
+        addVertex(v);
+        edgeCount++;
+        return components.union(u, v);
+    }
+
+    /**
+     * Adds a batch of edges, see {@link #addEdge(int, int)}. Directed edges
+     * are taken as undirected.
+     *
+     * @throws IllegalArgumentException if edges is null, or an edge has an
+     *  end that addEdge does not accept; the edges before it are added
+     * @param edges the edges to add
+     * @return the number of times two components were joined
+     */
+    public synchronized int addEdges(Collection<Edge> edges) {
+        if (edges == null) {
+            throw new IllegalArgumentException("Edges cannot be null.");
+        }
+        int joined = 0;
+        for (Edge e : edges) {
+            if (addEdge(e.getU(), e.getV())) {
+                joined++;
+            }
+        }
+        return joined;
+    }
+
+    /**
+     * Checks whether two vertices are connected. A vertex that is not in
+     * the graph is connected to nothing but itself.
+     *
+     * @throws IllegalArgumentException if u or v is negative, or the
+     *  stream is bounded and u or v is not one of its vertices
+     * @param u the first vertex
+     * @param v the second vertex
+     * @return true if there is a path between u and v
+     */
+    public synchronized boolean connected(int u, int v) {
+        check(u);
+        check(v);
+        if (u == v) {
+            return true;
+        }
+        return contains(u) && contains(v) && components.sameSet(u, v);
+    }
+
+    /**
+     * Gets the number of connected components.
+     *
+     * @return the number of components of the vertices in the graph
+     */
+    public synchronized int componentCount() {
+        return components.componentCount() - (components.size() - vertexCount);
+    }
+
+    /**
+     * Gets the number of vertices in the component of a vertex.
+     *
+     * @throws IllegalArgumentException if v is negative, or the stream is
+     *  bounded and v is not one of its vertices
+     * @param v the vertex
+     * @return the size of the component of v, or 0 if v is not in the graph
+     */
+    public synchronized int componentSize(int v) {
+        check(v);
+        return contains(v) ? components.componentSize(v) : 0;
+    }
+
+    /**
+     * Gets the number of vertices in the graph.
+     *
+     * @return the number of vertices
+     */
+    public synchronized int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Gets the number of edges added, including the ones that joined
+     * nothing.
+     *
+     * @return the number of edges
+     */
+    public synchronized long getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Gets whether or not the stream has a fixed set of vertices.
+     *
+     * @return true if the stream is bounded
+     */
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    /**
+     * Checks whether a vertex is in the graph.
+     *
+     * @param v a non-negative vertex
+     * @return true if v was added or was the end of an edge
+     */
+    private boolean contains(int v) {
+        return bounded || (v < present.length && present[v]);
+    }
+
+    /**
+     * Checks that a vertex can be added.
+     *
+     * @throws IllegalArgumentException if v is negative, the stream is
+     *  bounded and v is not one of its vertices, or the stream is growable
+     *  and v is greater than {@link #MAX_VERTEX}
+     * @param v the vertex
+     */
+    private void checkAdd(int v) {
+        check(v);
+        if (!bounded && v > MAX_VERTEX) {
+            throw new IllegalArgumentException("Vertex is larger than " + MAX_VERTEX + ": " + v);
+        }
+    }
+
+    /**
+     * Checks that a vertex can be asked about.
+     *
+     * @throws IllegalArgumentException if v is negative, or the stream is
+     *  bounded and v is not one of its vertices
+     * @param v the vertex
+     */
+    private void check(int v) {
+        if (v < 0 || (bounded && v >= vertexCount)) {
+            throw new IllegalArgumentException("Vertex is not in the graph: " + v);
+        }
+    }
+}